@@ -0,0 +1,102 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers many queries in one JVM. Each input line holds the same flags as the command line,
+ * e.g. {@code --zone SE3 --date 2025-09-04 --charging 4h}. All days the queries need are
+ * fetched once up front, the queries are then answered in parallel against the warm cache
+ * and the results are written in input order as soon as they are ready.
+ */
+class BatchRunner {
+    private final ElpriserAPI priceList;
+    private final int threads;
+
+    BatchRunner(ElpriserAPI priceList, int threads) {
+        this.priceList = priceList;
+        this.threads = threads;
+    }
+
+    void run(BufferedReader in, PrintStream out) throws IOException {
+        List<String> queries = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.strip();
+            if (!line.isEmpty() && !line.startsWith("#")) queries.add(line);
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            CompletableFuture.allOf(fetchesFor(queries).stream()
+                    .map(fetch -> CompletableFuture.runAsync(() -> priceList.getPriser(fetch.date(), fetch.zone()), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+
+            List<CompletableFuture<String>> answers = new ArrayList<>(queries.size());
+            for (String query : queries) {
+                answers.add(CompletableFuture.supplyAsync(() -> answer(query), executor));
+            }
+            for (int i = 0; i < queries.size(); i++) {
+                out.println("# " + queries.get(i));
+                out.print(answers.get(i).join());
+                answers.set(i, null);
+            }
+        }
+    }
+
+    private String answer(String query) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        String[] args = query.split("\\s+");
+        if (List.of(args).contains("--watch") || List.of(args).contains("--batch")) {
+            out.println("Not supported in batch mode: " + query);
+        } else {
+            try {
+                Main.determineUsage(args, priceList, out);
+            } catch (RuntimeException e) {
+                out.println("Failed to answer query: " + e.getMessage());
+            }
+        }
+        out.flush();
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Set<Fetch> fetchesFor(List<String> queries) {
+        Set<Fetch> fetches = new LinkedHashSet<>();
+        for (String query : queries) {
+            String[] args = query.split("\\s+");
+            ElpriserAPI.Prisklass zone = null;
+            LocalDate date = LocalDate.now();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--zone")) {
+                    zone = Main.getZone(args, i);
+                } else if (args[i].equals("--date") && i + 1 < args.length) {
+                    try {
+                        date = LocalDate.parse(args[i + 1]);
+                    } catch (DateTimeParseException e) {
+                        date = null;
+                    }
+                }
+            }
+            if (zone != null && date != null) {
+                fetches.add(new Fetch(zone, date));
+                fetches.add(new Fetch(zone, date.plusDays(1)));
+            }
+        }
+        return fetches;
+    }
+
+    private record Fetch(ElpriserAPI.Prisklass zone, LocalDate date) {}
+}
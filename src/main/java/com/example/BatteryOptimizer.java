@@ -0,0 +1,113 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Finds the most profitable charge/discharge schedule for a battery over a price series.
+ * The state of charge is discretised into {@link Battery#levels()} steps and solved backwards
+ * with dynamic programming. For each slot the best next level inside the power limits is found
+ * with a monotonic queue, so a solve is O(slots * levels) instead of O(slots * levels^2).
+ * Round-trip efficiency is split evenly between charging and discharging.
+ */
+public class BatteryOptimizer {
+    private static final double SLOT_HOURS = QuarterPrices.SLOT.toMinutes() / 60.0;
+
+    private final QuarterPrices prices;
+
+    public BatteryOptimizer(QuarterPrices prices) {
+        this.prices = prices;
+    }
+
+    public List<Plan> optimizeAll(List<Battery> batteries) {
+        return batteries.parallelStream().map(this::optimize).toList();
+    }
+
+    public Plan optimize(Battery battery) {
+        int slots = prices.size();
+        int levels = battery.levels();
+        int states = levels + 1;
+        double step = battery.capacityKWh() / levels;
+        double chargeEfficiency = Math.sqrt(battery.roundTripEfficiency());
+        double dischargeEfficiency = chargeEfficiency;
+        int maxUp = (int) Math.floor(battery.maxChargeKW() * SLOT_HOURS / step + 1e-9);
+        int maxDown = (int) Math.floor(battery.maxDischargeKW() * SLOT_HOURS / step + 1e-9);
+
+        double[] value = new double[states];
+        double[] nextValue = new double[states];
+        int[] choice = new int[slots * states];
+        int[] queue = new int[states];
+        double[] shifted = new double[states];
+
+        for (int t = slots - 1; t >= 0; t--) {
+            double[] future = value;
+            double buy = step * prices.sekPerKWh(t) / chargeEfficiency;
+            double sell = step * prices.sekPerKWh(t) * dischargeEfficiency;
+
+            // Charging: best of future(s') - (s' - s) * buy for s' in [s, s + maxUp]
+            for (int s = 0; s < states; s++) shifted[s] = future[s] - s * buy;
+            int head = 0, tail = 0;
+            for (int s = states - 1; s >= 0; s--) {
+                while (tail > head && shifted[queue[tail - 1]] <= shifted[s]) tail--;
+                queue[tail++] = s;
+                if (queue[head] > s + maxUp) head++;
+                nextValue[s] = shifted[queue[head]] + s * buy;
+                choice[t * states + s] = queue[head];
+            }
+
+            // Discharging: best of future(s') + (s - s') * sell for s' in [s - maxDown, s]
+            for (int s = 0; s < states; s++) shifted[s] = future[s] - s * sell;
+            head = 0;
+            tail = 0;
+            for (int s = 0; s < states; s++) {
+                while (tail > head && shifted[queue[tail - 1]] <= shifted[s]) tail--;
+                queue[tail++] = s;
+                if (queue[head] < s - maxDown) head++;
+                double discharge = shifted[queue[head]] + s * sell;
+                if (discharge >= nextValue[s]) {
+                    nextValue[s] = discharge;
+                    choice[t * states + s] = queue[head];
+                }
+            }
+
+            value = nextValue;
+            nextValue = future;
+        }
+
+        int level = (int) Math.round(battery.initialKWh() / step);
+        double[] gridKWh = new double[slots];
+        double[] stateOfChargeKWh = new double[slots + 1];
+        stateOfChargeKWh[0] = level * step;
+        for (int t = 0; t < slots; t++) {
+            int next = choice[t * states + level];
+            int delta = next - level;
+            gridKWh[t] = delta > 0 ? delta * step / chargeEfficiency : delta * step * dischargeEfficiency;
+            level = next;
+            stateOfChargeKWh[t + 1] = level * step;
+        }
+        return new Plan(battery, value[(int) Math.round(battery.initialKWh() / step)], gridKWh, stateOfChargeKWh);
+    }
+
+    /**
+     * @param levels Number of steps the state of charge is divided into, more is finer but slower.
+     */
+    public record Battery(double capacityKWh, double maxChargeKW, double maxDischargeKW,
+                          double roundTripEfficiency, double initialKWh, int levels) {
+        public Battery {
+            if (capacityKWh <= 0) throw new IllegalArgumentException("Capacity must be positive");
+            if (maxChargeKW < 0 || maxDischargeKW < 0) throw new IllegalArgumentException("Power limits must not be negative");
+            if (roundTripEfficiency <= 0 || roundTripEfficiency > 1) throw new IllegalArgumentException("Efficiency must be in (0, 1]");
+            if (initialKWh < 0 || initialKWh > capacityKWh) throw new IllegalArgumentException("Initial charge must be within capacity");
+            if (levels < 1) throw new IllegalArgumentException("At least one level is needed");
+        }
+
+        public Battery(double capacityKWh, double maxChargeKW, double maxDischargeKW, double roundTripEfficiency) {
+            this(capacityKWh, maxChargeKW, maxDischargeKW, roundTripEfficiency, 0, 100);
+        }
+    }
+
+    /**
+     * gridKWh is bought energy per slot, negative when sold. stateOfChargeKWh has one more
+     * entry than there are slots and starts with the initial charge.
+     */
+    public record Plan(Battery battery, double profitSek, double[] gridKWh, double[] stateOfChargeKWh) {}
+}
@@ -0,0 +1,159 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link ColumnarPriceWriter} one row group at a time.
+ */
+public class ColumnarPriceReader implements Closeable {
+    private final DataInputStream in;
+    private final ElpriserAPI.Prisklass[] zones;
+    private final Inflater inflater = new Inflater();
+    private boolean finished;
+
+    public ColumnarPriceReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        byte[] magic = this.in.readNBytes(ColumnarPriceWriter.MAGIC.length);
+        int version = this.in.readUnsignedByte();
+        if (!Arrays.equals(magic, ColumnarPriceWriter.MAGIC) || version != ColumnarPriceWriter.VERSION) {
+            throw new IOException("Not a price export, or unsupported version " + version);
+        }
+        zones = new ElpriserAPI.Prisklass[this.in.readUnsignedByte()];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = ElpriserAPI.Prisklass.valueOf(this.in.readUTF());
+        }
+    }
+
+    public List<ElpriserAPI.Prisklass> zones() {
+        return List.of(zones);
+    }
+
+    /**
+     * @return The rows of the next row group, or null when the file has no more rows.
+     */
+    public List<Row> nextRowGroup() throws IOException {
+        if (finished) return null;
+        int rows = in.readInt();
+        if (rows == 0) {
+            finished = true;
+            return null;
+        }
+
+        Column column = readColumn();
+        byte[] zone = new byte[rows];
+        for (int i = 0; i < rows; ) {
+            int run = (int) column.readVarLong();
+            Arrays.fill(zone, i, i + run, column.bytes[column.position++]);
+            i += run;
+        }
+
+        column = readColumn();
+        long[] timeStart = new long[rows];
+        long previousStart = 0;
+        for (int i = 0; i < rows; i++) {
+            previousStart += column.readZigZag();
+            timeStart[i] = previousStart;
+        }
+
+        column = readColumn();
+        long[] duration = new long[rows];
+        for (int i = 0; i < rows; i++) duration[i] = column.readVarLong();
+
+        column = readColumn();
+        int[] utcOffset = new int[rows];
+        for (int i = 0; i < rows; i++) utcOffset[i] = (int) column.readZigZag();
+
+        double[][] values = new double[3][rows];
+        for (double[] value : values) {
+            column = readColumn();
+            int encoding = column.bytes[column.position++];
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (encoding == ColumnarPriceWriter.DECIMAL_ENCODING) {
+                    previous += column.readZigZag();
+                    value[i] = previous / ColumnarPriceWriter.DECIMAL_SCALE;
+                } else {
+                    previous ^= column.readLong();
+                    value[i] = Double.longBitsToDouble(previous);
+                }
+            }
+        }
+
+        List<Row> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(utcOffset[i]);
+            ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochSecond(timeStart[i]), offset);
+            result.add(new Row(zones[zone[i]], new ElpriserAPI.Elpris(values[0][i], values[1][i], values[2][i],
+                    start, start.plusSeconds(duration[i]))));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+        inflater.end();
+    }
+
+    private Column readColumn() throws IOException {
+        byte[] compressed = in.readNBytes(in.readInt());
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] bytes = new byte[Math.max(64, compressed.length * 4)];
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                int read = inflater.inflate(bytes, length, bytes.length - length);
+                if (read == 0 && inflater.needsInput()) throw new IOException("Truncated column");
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column", e);
+        }
+        return new Column(bytes);
+    }
+
+    public record Row(ElpriserAPI.Prisklass zone, ElpriserAPI.Elpris price) {}
+
+    private static final class Column {
+        private final byte[] bytes;
+        private int position;
+
+        Column(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) value = (value << 8) | (bytes[position++] & 0xFF);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams prices to a compact columnar file. Rows are buffered into row groups of at most
+ * {@link #ROW_GROUP_SIZE} rows, so memory stays bounded however long the export is.
+ * <p>
+ * Layout. Fixed-size integers are big-endian and varints are unsigned LEB128:
+ * <pre>
+ * "ELPC" version:u8
+ * zoneCount:u8 { zoneName:UTF }           zone dictionary
+ * { rowCount:i32 column*7 }               row groups, rowCount 0 ends the file
+ * column = length:i32 deflate(bytes)
+ *   zone       runs of (length:varint, dictionaryIndex:u8)
+ *   timeStart  epoch second of the first row, then deltas to the previous row, zigzag varints
+ *   duration   seconds per row, varints
+ *   utcOffset  seconds per row, zigzag varints
+ *   sek        encoding:u8, then
+ *                0: IEEE 754 bits XOR the previous row's bits, 8 bytes per row
+ *                1: value * 100000 as a long, deltas to the previous row, zigzag varints
+ *   eur        same encoding as sek
+ *   exr        same encoding as sek
+ * </pre>
+ * Encoding 1 is used for a column whenever every value in the row group has at most five decimals,
+ * which is the case for the prices the API publishes.
+ */
+public class ColumnarPriceWriter implements Closeable {
+    static final byte[] MAGIC = {'E', 'L', 'P', 'C'};
+    static final int VERSION = 1;
+    static final int ROW_GROUP_SIZE = 8192;
+    static final int XOR_ENCODING = 0;
+    static final int DECIMAL_ENCODING = 1;
+    static final double DECIMAL_SCALE = 100_000;
+
+    private final DataOutputStream out;
+    private final List<ElpriserAPI.Prisklass> zones;
+
+    private final byte[] zone = new byte[ROW_GROUP_SIZE];
+    private final long[] timeStart = new long[ROW_GROUP_SIZE];
+    private final long[] duration = new long[ROW_GROUP_SIZE];
+    private final int[] utcOffset = new int[ROW_GROUP_SIZE];
+    private final double[] sek = new double[ROW_GROUP_SIZE];
+    private final double[] eur = new double[ROW_GROUP_SIZE];
+    private final double[] exr = new double[ROW_GROUP_SIZE];
+    private final Column column = new Column();
+    private int rows;
+
+    public ColumnarPriceWriter(OutputStream out, List<ElpriserAPI.Prisklass> zones) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.zones = List.copyOf(zones);
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeByte(zones.size());
+        for (ElpriserAPI.Prisklass prisklass : zones) {
+            this.out.writeUTF(prisklass.name());
+        }
+    }
+
+    /**
+     * Writes every day from {@code from} to {@code to} (inclusive) for each zone. Days are read from the
+     * disk cache or the network without being kept in the API's memory cache, so long ranges stay bounded.
+     */
+    public static void export(ElpriserAPI priceList, List<ElpriserAPI.Prisklass> zones, LocalDate from, LocalDate to,
+                              OutputStream out) throws IOException {
+        try (ColumnarPriceWriter writer = new ColumnarPriceWriter(out, zones)) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                for (ElpriserAPI.Prisklass prisklass : zones) {
+                    for (ElpriserAPI.Elpris price : priceList.getPriserUtanMinnescache(date, prisklass)) {
+                        writer.write(prisklass, price);
+                    }
+                }
+            }
+        }
+    }
+
+    public void write(ElpriserAPI.Prisklass prisklass, ElpriserAPI.Elpris price) throws IOException {
+        int dictionaryIndex = zones.indexOf(prisklass);
+        if (dictionaryIndex < 0) throw new IllegalArgumentException("Zone not in export: " + prisklass);
+
+        zone[rows] = (byte) dictionaryIndex;
+        timeStart[rows] = price.timeStart().toEpochSecond();
+        duration[rows] = price.timeEnd().toEpochSecond() - timeStart[rows];
+        utcOffset[rows] = price.timeStart().getOffset().getTotalSeconds();
+        sek[rows] = price.sekPerKWh();
+        eur[rows] = price.eurPerKWh();
+        exr[rows] = price.exr();
+        if (++rows == ROW_GROUP_SIZE) flushRowGroup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushRowGroup();
+        out.writeInt(0);
+        out.close();
+        column.deflater.end();
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) return;
+        out.writeInt(rows);
+
+        for (int i = 0; i < rows; ) {
+            int run = 1;
+            while (i + run < rows && zone[i + run] == zone[i]) run++;
+            column.writeVarLong(run);
+            column.write(zone[i]);
+            i += run;
+        }
+        column.flushTo(out);
+
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            column.writeZigZag(timeStart[i] - previous);
+            previous = timeStart[i];
+        }
+        column.flushTo(out);
+
+        for (int i = 0; i < rows; i++) column.writeVarLong(duration[i]);
+        column.flushTo(out);
+
+        for (int i = 0; i < rows; i++) column.writeZigZag(utcOffset[i]);
+        column.flushTo(out);
+
+        for (double[] values : new double[][]{sek, eur, exr}) {
+            writeValues(values);
+            column.flushTo(out);
+        }
+        rows = 0;
+    }
+
+    private void writeValues(double[] values) {
+        boolean decimal = true;
+        for (int i = 0; i < rows && decimal; i++) {
+            decimal = Math.abs(values[i]) < 1e9 && Math.round(values[i] * DECIMAL_SCALE) / DECIMAL_SCALE == values[i];
+        }
+
+        if (decimal) {
+            column.write(DECIMAL_ENCODING);
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                long scaled = Math.round(values[i] * DECIMAL_SCALE);
+                column.writeZigZag(scaled - previous);
+                previous = scaled;
+            }
+        } else {
+            column.write(XOR_ENCODING);
+            long previousBits = 0;
+            for (int i = 0; i < rows; i++) {
+                long bits = Double.doubleToLongBits(values[i]);
+                column.writeLong(bits ^ previousBits);
+                previousBits = bits;
+            }
+        }
+    }
+
+    private static final class Column extends ByteArrayOutputStream {
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        private final Deflater deflater = new Deflater();
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) write((int) (value >>> shift));
+        }
+
+        void flushTo(DataOutputStream out) throws IOException {
+            deflater.reset();
+            compressed.reset();
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+                writeTo(deflate);
+            }
+            out.writeInt(compressed.size());
+            compressed.writeTo(out);
+            reset();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns quarter-hour charging slots to many vehicles behind one site connection, as a
+ * transportation problem from vehicles to slots with the site capacity as the slot limit.
+ * Since a slot costs the same for every vehicle, filling the slots cheapest first is optimal:
+ * each slot takes as much as can reach it along augmenting paths, which may move vehicles
+ * already placed to other slots in their windows without emptying any slot filled before.
+ * The schedule therefore delivers as much energy as the windows allow, at the lowest cost.
+ */
+public class FleetScheduler {
+    private static final double SLOT_HOURS = QuarterPrices.SLOT.toMinutes() / 60.0;
+    private static final double EPSILON = 1e-9;
+
+    private final QuarterPrices prices;
+    private final double siteCapacityKW;
+    private final int[] cheapestFirst;
+
+    public FleetScheduler(QuarterPrices prices, double siteCapacityKW) {
+        if (siteCapacityKW <= 0) throw new IllegalArgumentException("Site capacity must be positive");
+        this.prices = prices;
+        this.siteCapacityKW = siteCapacityKW;
+        this.cheapestFirst = IntStream.range(0, prices.size()).boxed()
+                .sorted(Comparator.comparingDouble(prices::sekPerKWh).thenComparingInt(slot -> slot))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public Schedule schedule(List<Vehicle> vehicles) {
+        return new Solver(vehicles).solve();
+    }
+
+    // Flow is counted in kW per slot: a vehicle needing E kWh needs E / SLOT_HOURS kW summed over its slots
+    private final class Solver {
+        private final List<Vehicle> vehicles;
+        private final int[] from;
+        private final int[] to;
+        private final double[] needKW;
+        private final double[][] powerKW;
+        private final double[] capacityLeft;
+        // Vehicles whose window contains each slot, for walking back from a slot to the vehicles charging in it
+        private final int[][] vehiclesInSlot;
+        private final int[] slotParent;
+        private final int[] vehicleParent;
+
+        Solver(List<Vehicle> vehicles) {
+            int slots = prices.size();
+            this.vehicles = vehicles;
+            this.from = new int[vehicles.size()];
+            this.to = new int[vehicles.size()];
+            this.needKW = new double[vehicles.size()];
+            this.powerKW = new double[vehicles.size()][slots];
+            this.capacityLeft = new double[slots];
+            Arrays.fill(capacityLeft, siteCapacityKW);
+
+            int[] count = new int[slots];
+            for (int v = 0; v < vehicles.size(); v++) {
+                Vehicle vehicle = vehicles.get(v);
+                from[v] = Math.max(0, vehicle.plugInSlot());
+                to[v] = Math.min(slots, vehicle.deadlineSlot());
+                needKW[v] = vehicle.energyKWh() / SLOT_HOURS;
+                for (int slot = from[v]; slot < to[v]; slot++) count[slot]++;
+            }
+            this.vehiclesInSlot = new int[slots][];
+            for (int slot = 0; slot < slots; slot++) vehiclesInSlot[slot] = new int[count[slot]];
+            for (int v = 0; v < vehicles.size(); v++) {
+                for (int slot = from[v]; slot < to[v]; slot++) vehiclesInSlot[slot][--count[slot]] = v;
+            }
+            this.slotParent = new int[slots];
+            this.vehicleParent = new int[vehicles.size()];
+        }
+
+        Schedule solve() {
+            for (int slot : cheapestFirst) {
+                boolean found = true;
+                while (capacityLeft[slot] > EPSILON && found) {
+                    found = augment(slot);
+                }
+            }
+
+            double[] unmetKWh = new double[vehicles.size()];
+            double totalCost = 0;
+            for (int v = 0; v < vehicles.size(); v++) {
+                unmetKWh[v] = needKW[v] * SLOT_HOURS > EPSILON ? needKW[v] * SLOT_HOURS : 0;
+                for (int slot = from[v]; slot < to[v]; slot++) {
+                    totalCost += powerKW[v][slot] * SLOT_HOURS * prices.sekPerKWh(slot);
+                }
+            }
+            return new Schedule(vehicles, powerKW, unmetKWh, totalCost);
+        }
+
+        // Breadth-first search from the vehicles with unmet need to the target slot. A path enters a slot from one
+        // vehicle and leaves it through another vehicle already charging there, so only the target's load grows.
+        private boolean augment(int target) {
+            Arrays.fill(slotParent, -1);
+            Arrays.fill(vehicleParent, -2);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int v = 0; v < vehicles.size(); v++) {
+                if (needKW[v] > EPSILON) {
+                    vehicleParent[v] = -1;
+                    queue.add(v);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                double maxPower = vehicles.get(v).maxPowerKW();
+                for (int slot = from[v]; slot < to[v]; slot++) {
+                    if (slotParent[slot] >= 0 || powerKW[v][slot] >= maxPower - EPSILON) continue;
+                    slotParent[slot] = v;
+                    if (slot == target) {
+                        push(target);
+                        return true;
+                    }
+                    for (int next : vehiclesInSlot[slot]) {
+                        if (vehicleParent[next] == -2 && powerKW[next][slot] > EPSILON) {
+                            vehicleParent[next] = slot;
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void push(int target) {
+            double amount = capacityLeft[target];
+            int slot = target;
+            int v;
+            while (true) {
+                v = slotParent[slot];
+                amount = Math.min(amount, vehicles.get(v).maxPowerKW() - powerKW[v][slot]);
+                if (vehicleParent[v] < 0) break;
+                slot = vehicleParent[v];
+                amount = Math.min(amount, powerKW[v][slot]);
+            }
+            amount = Math.min(amount, needKW[v]);
+
+            needKW[v] -= amount;
+            capacityLeft[target] -= amount;
+            slot = target;
+            while (true) {
+                v = slotParent[slot];
+                powerKW[v][slot] += amount;
+                if (vehicleParent[v] < 0) break;
+                slot = vehicleParent[v];
+                powerKW[v][slot] -= amount;
+            }
+        }
+    }
+
+    public record Vehicle(String id, double energyKWh, double maxPowerKW, int plugInSlot, int deadlineSlot) {
+        public Vehicle {
+            if (energyKWh < 0) throw new IllegalArgumentException("Energy need must not be negative: " + id);
+            if (maxPowerKW <= 0) throw new IllegalArgumentException("Charging power must be positive: " + id);
+            if (deadlineSlot <= plugInSlot) throw new IllegalArgumentException("Deadline must be after plug-in: " + id);
+        }
+    }
+
+    /**
+     * Charging power per vehicle and slot, in the order the vehicles were given.
+     */
+    public record Schedule(List<Vehicle> vehicles, double[][] powerKW, double[] unmetKWh, double totalCostSek) {
+        public double powerKW(int vehicle, int slot) {
+            return powerKW[vehicle][slot];
+        }
+
+        public double unmetKWh(int vehicle) {
+            return unmetKWh[vehicle];
+        }
+
+        public boolean isComplete() {
+            return Arrays.stream(unmetKWh).allMatch(unmet -> unmet == 0);
+        }
+    }
+}
@@ -1,6 +1,18 @@
 package com.example;
 
 import com.example.api.ElpriserAPI;
+import com.example.api.Prisserie;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
@@ -8,109 +20,171 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.BiConsumer;
 
 
 public class Main {
+    private static final Duration WATCH_INTERVAL = Duration.ofMinutes(15);
+    // Hour prices averaged from 1e-5 SEK quarter prices are exact multiples of 1e-7 SEK
+    static final long CHARGE_PRICE_SCALE = 10_000_000;
+
     public static void main(String[] args) {
         Locale.setDefault(Locale.of("sv","SE"));
 
         if(args.length != 0){
-            ElpriserAPI elpriserAPI = new ElpriserAPI();
-            determineUsage(args, elpriserAPI);
+            // In batch mode stdout only carries the answers, and the API's status lines are left out
+            // so that cache hits stay allocation-free
+            ElpriserAPI elpriserAPI = new ElpriserAPI(true, List.of(args).contains("--batch") ? null : System.out);
+            determineUsage(args, elpriserAPI, System.out);
         }else{
-             printHelp();
+             printHelp(System.out);
         }
     }
 
 
-    private static void printHelp() {
-        System.out.println("""
+    private static void printHelp(PrintStream out) {
+        out.println("""
                 Usage:
-                --zone SE1|SE2|SE3|SE4 (required)
+                --zone SE1|SE2|SE3|SE4 (required, may be repeated with --export)
                 --date YYYY-MM-DD (optional, defaults to current date)
                 --sorted (optional, to display prices in descending order)
-                --charging 2h|4h|8h (optional, to find optimal charging windows)""");
+                --charging 2h|4h|8h (optional, to find optimal charging windows)
+                --watch (optional, to keep following prices as new data arrives)
+                --batch [FILE] (optional, to answer one query per line from FILE or stdin)
+                --export FILE (optional, to write prices to a columnar file)
+                --to YYYY-MM-DD (optional, last day to export, defaults to --date)""");
     }
 
-    private static void determineUsage(String[] args, ElpriserAPI priceList) {
+    static void determineUsage(String[] args, ElpriserAPI priceList, PrintStream out) {
         ElpriserAPI.Prisklass zone = null;
+        List<ElpriserAPI.Prisklass> zones = new ArrayList<>();
         LocalDate parsedDate = LocalDate.now();
         int chargeDuration = -1;
         boolean sorted = false;
+        boolean watch = false;
+        String exportFile = null;
+        LocalDate toDate = null;
 
         for (int i = 0; i < args.length; i++) {
             switch(args[i]){
-                case "--zone" -> zone = getZone(args, i);
-                case "--date" -> parsedDate = getParsedDate(args, i);
+                case "--zone" -> {
+                    zone = getZone(args, i);
+                    if (zone != null && !zones.contains(zone)) zones.add(zone);
+                }
+                case "--date" -> parsedDate = getParsedDate(args, i, out);
                 case "--charging" -> chargeDuration = getChargeDuration(args, i);
                 case "--sorted" -> sorted = true;
-                case "--help" -> { printHelp(); return; }
+                case "--watch" -> watch = true;
+                case "--export" -> exportFile = i + 1 < args.length ? args[i+1] : null;
+                case "--to" -> toDate = getParsedDate(args, i, out);
+                case "--batch" -> { runBatch(args, i, priceList, out); return; }
+                case "--help" -> { printHelp(out); return; }
             }
         }
 
         if(zone == null){
-            printHelp();
-            System.out.println("Invalid zone input");
+            printHelp(out);
+            out.println("Invalid zone input");
+        }
+        else if(exportFile != null)
+            exportPrices(priceList, zones, parsedDate, toDate == null ? parsedDate : toDate, exportFile, out);
+        else if(watch)
+            new PriceWatcher(priceList, zone, chargeDuration, LocalDate::now, out).run(WATCH_INTERVAL);
+        else if(chargeDuration != -1) {
+            int duration = chargeDuration;
+            printAnswer(priceList, zone, parsedDate, ResultCache.Query.CHARGING, duration,
+                    (prices, answerOut) -> printChargePrice(prices, duration, answerOut), out);
         }
-        else if(chargeDuration != -1)
-            printChargePrice(priceList, zone, parsedDate, chargeDuration);
         else if(sorted)
-            printSortedPrices(priceList, zone, parsedDate);
+            printAnswer(priceList, zone, parsedDate, ResultCache.Query.SORTED, 0, Main::printSortedPrices, out);
         else
-            printPrices(getMergedList(priceList, zone, parsedDate));
+            printAnswer(priceList, zone, parsedDate, ResultCache.Query.PRICES, 0, Main::printPrices, out);
     }
 
-    private static void printSortedPrices(ElpriserAPI priceList, ElpriserAPI.Prisklass zone, LocalDate parsedDate) {
+    private static void printAnswer(ElpriserAPI priceList, ElpriserAPI.Prisklass zone, LocalDate parsedDate,
+                                    ResultCache.Query query, int parameter,
+                                    BiConsumer<List<hourOfQuarters>, PrintStream> printer, PrintStream out) {
         if (parsedDate == null || zone == null) return;
 
-        List<hourOfQuarters> sortedList = getMergedList(priceList, zone, parsedDate);
-        sortedList = sortedList.stream()
+        LocalDate toDate = parsedDate.plusDays(1);
+        ResultCache.Key key = new ResultCache.Key(zone, parsedDate, toDate, query, parameter);
+        out.print(ResultCache.of(priceList).answer(priceList, key, () -> {
+            Prisserie prices = priceList.getPriser(parsedDate, toDate, zone);
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            printer.accept(convertQuartersToHours(prices), new PrintStream(text, true, StandardCharsets.UTF_8));
+            return new ResultCache.Answer(text.toString(StandardCharsets.UTF_8), prices.antalDagar() == 2);
+        }));
+    }
+
+    private static void runBatch(String[] args, int index, ElpriserAPI priceList, PrintStream out) {
+        BatchRunner batchRunner = new BatchRunner(priceList, Runtime.getRuntime().availableProcessors());
+        boolean fromFile = index + 1 < args.length && !args[index+1].startsWith("--");
+        try (BufferedReader in = fromFile
+                ? Files.newBufferedReader(Path.of(args[index+1]))
+                : new BufferedReader(new InputStreamReader(System.in))) {
+            batchRunner.run(in, out);
+        } catch (IOException e) {
+            out.println("Could not read batch input: " + e.getMessage());
+        }
+    }
+
+    private static void exportPrices(ElpriserAPI priceList, List<ElpriserAPI.Prisklass> zones, LocalDate fromDate,
+                                     LocalDate toDate, String file, PrintStream out) {
+        if (fromDate == null || toDate == null) return;
+
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(Path.of(file)))) {
+            ColumnarPriceWriter.export(priceList, zones, fromDate, toDate, fileOut);
+            out.println("Exporterade priser till " + file);
+        } catch (IOException e) {
+            out.println("Could not write export: " + e.getMessage());
+        }
+    }
+
+    private static void printSortedPrices(List<hourOfQuarters> prices, PrintStream out) {
+        List<hourOfQuarters> sortedList = prices.stream()
                 .sorted(Comparator.comparing(hourOfQuarters::price).reversed()
                         .thenComparing(hourOfQuarters::startDate))
                 .toList();
 
-        printPrices(sortedList);
+        printPrices(sortedList, out);
     }
 
-    private static void printPrices(List<hourOfQuarters> priceList) {
+    private static void printPrices(List<hourOfQuarters> priceList, PrintStream out) {
         if(priceList == null) return;
         if(priceList.isEmpty()){
-            System.out.println("Found no data");
+            out.println("Found no data");
         } else {
             double lowestPrice = Double.MAX_VALUE, highestPrice = 0, meanPrice = 0;
-            System.out.println("Prislista:");
+            out.println("Prislista:");
             for (hourOfQuarters price : priceList) {
                 lowestPrice = Math.min(lowestPrice, price.price());
                 highestPrice = Math.max(highestPrice, price.price());
                 meanPrice += price.price();
-                System.out.printf(formattedTime(price) + " %.2f öre\n", price.price() * 100);
+                out.printf(formattedTime(price) + " %.2f öre\n", price.price() * 100);
             }
-            System.out.printf("Lägsta pris: %.02f öre\n", lowestPrice*100);
-            System.out.printf("Högsta pris: %.02f öre\n", highestPrice*100);
-            System.out.printf("Medelpris: %.02f öre\n", meanPrice/priceList.size()*100);
+            out.printf("Lägsta pris: %.02f öre\n", lowestPrice*100);
+            out.printf("Högsta pris: %.02f öre\n", highestPrice*100);
+            out.printf("Medelpris: %.02f öre\n", meanPrice/priceList.size()*100);
         }
     }
 
-    private static void printChargePrice(ElpriserAPI priceList, ElpriserAPI.Prisklass zone, LocalDate parsedDate, int chargeDuration) {
-        if (parsedDate == null || zone == null) return;
-
-        if(chargeDuration == -1){
-            printHelp();
+    private static void printChargePrice(List<hourOfQuarters> prices, int chargeDuration, PrintStream out) {
+        if(prices.size() < chargeDuration){
+            out.println("Found no data");
             return;
         }
-
-        List<hourOfQuarters> prices = getMergedList(priceList, zone, parsedDate);
         List<hourOfQuarters> chargeWindow;
+        long[] fixedPrices = prices.stream().mapToLong(price -> Math.round(price.price() * CHARGE_PRICE_SCALE)).toArray();
         int indexWindow = chargeDuration;
-        double lowestSum = 0;
+        long lowestSum = 0;
 
         for (int i = 0; i < chargeDuration; i++) {
-            lowestSum += prices.get(i).price();
+            lowestSum += fixedPrices[i];
         }
 
-        double windowSum = lowestSum;
-        for (int i = chargeDuration; i < prices.size(); i++) {
-            windowSum += prices.get(i).price() - prices.get(i - chargeDuration).price();
+        long windowSum = lowestSum;
+        for (int i = chargeDuration; i < fixedPrices.length; i++) {
+            windowSum += fixedPrices[i] - fixedPrices[i - chargeDuration];
             if(windowSum < lowestSum){
                 indexWindow = i+1;
                 lowestSum = windowSum;
@@ -119,11 +193,11 @@ public class Main {
 
         chargeWindow = prices.subList(indexWindow - chargeDuration, indexWindow);
 
-        System.out.printf("Medelpris för fönster: %.2f öre\n", lowestSum/chargeDuration*100);
-        System.out.printf("Påbörja laddning kl %02d:00\n", chargeWindow.getFirst().startDate.getHour());
+        out.printf("Medelpris för fönster: %.2f öre\n", (double) lowestSum/CHARGE_PRICE_SCALE/chargeDuration*100);
+        out.printf("Påbörja laddning kl %02d:00\n", chargeWindow.getFirst().startDate.getHour());
     }
 
-    private static List<hourOfQuarters> convertQuartersToHours(List<ElpriserAPI.Elpris> prices) {
+    static List<hourOfQuarters> convertQuartersToHours(List<ElpriserAPI.Elpris> prices) {
         List<hourOfQuarters> hourList = new ArrayList<>();
         if (prices.isEmpty()){
             return hourList;
@@ -147,7 +221,7 @@ public class Main {
         return hourList;
     }
 
-    private static ElpriserAPI.Prisklass getZone(String[] args, int index) {
+    static ElpriserAPI.Prisklass getZone(String[] args, int index) {
         ElpriserAPI.Prisklass zone = null;
         try {
             switch (args[index+1]){
@@ -162,13 +236,13 @@ public class Main {
         return zone;
     }
 
-    private static LocalDate getParsedDate(String[] args, int index) {
+    private static LocalDate getParsedDate(String[] args, int index, PrintStream out) {
         LocalDate parsedDate;
         try {
             parsedDate = LocalDate.parse(args[index+1]);
         } catch (DateTimeParseException | IndexOutOfBoundsException e) {
-            printHelp();
-            System.out.println("Invalid date");
+            printHelp(out);
+            out.println("Invalid date");
             return null;
         }
         return parsedDate;
@@ -189,14 +263,6 @@ public class Main {
         return chargeDuration;
     }
 
-    private static List<hourOfQuarters> getMergedList(ElpriserAPI priceList, ElpriserAPI.Prisklass zone, LocalDate parsedDate) {
-        if (parsedDate == null || zone == null) return null;
-
-        List<ElpriserAPI.Elpris> mergedList = priceList.getPriser(parsedDate, zone);
-        mergedList.addAll(priceList.getPriser(parsedDate.plusDays(1), zone));
-        return convertQuartersToHours(mergedList);
-    }
-
     private static String formattedTime(hourOfQuarters source){
         String formattedTime;
         formattedTime = String.format("%02d-%02d", source.startDate.getHour(), source.endDate.getHour());
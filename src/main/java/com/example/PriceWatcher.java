@@ -0,0 +1,122 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Follows the prices for one zone over time. Statistics and the cheapest charging window
+ * are kept as running values and extended with each new day instead of being recomputed,
+ * and only what changed is printed. The horizon is restarted when the date rolls over and
+ * days are fetched without being kept in the API's memory cache, so memory use stays at
+ * roughly two days of prices however long the watcher runs.
+ */
+class PriceWatcher {
+    private final ElpriserAPI priceList;
+    private final ElpriserAPI.Prisklass zone;
+    private final int chargeDuration;
+    private final Supplier<LocalDate> clock;
+    private final PrintStream out;
+
+    private final List<Main.hourOfQuarters> horizon = new ArrayList<>();
+    private LocalDate firstDay;
+    private LocalDate nextDay;
+
+    private double lowestPrice, highestPrice, priceSum;
+    private long windowSum, lowestSum;
+    private int indexWindow;
+
+    PriceWatcher(ElpriserAPI priceList, ElpriserAPI.Prisklass zone, int chargeDuration,
+                 Supplier<LocalDate> clock, PrintStream out) {
+        this.priceList = priceList;
+        this.zone = zone;
+        this.chargeDuration = chargeDuration;
+        this.clock = clock;
+        this.out = out;
+    }
+
+    void run(Duration interval) {
+        while (!Thread.currentThread().isInterrupted()) {
+            poll();
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    boolean poll() {
+        LocalDate today = clock.get();
+        if (firstDay == null || today.isAfter(firstDay)) {
+            restart(today);
+        }
+
+        boolean changed = false;
+        List<ElpriserAPI.Elpris> next;
+        while (!(next = priceList.getPriserUtanMinnescache(nextDay, zone)).isEmpty()) {
+            extend(nextDay, Main.convertQuartersToHours(next));
+            nextDay = nextDay.plusDays(1);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void restart(LocalDate today) {
+        horizon.clear();
+        firstDay = today;
+        nextDay = today;
+        lowestPrice = Double.MAX_VALUE;
+        highestPrice = 0;
+        priceSum = 0;
+        windowSum = 0;
+        lowestSum = 0;
+        indexWindow = -1;
+        out.println("Bevakar priser för " + zone + " från " + today);
+    }
+
+    private void extend(LocalDate day, List<Main.hourOfQuarters> hours) {
+        double previousLowest = lowestPrice, previousHighest = highestPrice;
+        int previousWindow = indexWindow;
+
+        for (Main.hourOfQuarters hour : hours) {
+            horizon.add(hour);
+            lowestPrice = Math.min(lowestPrice, hour.price());
+            highestPrice = Math.max(highestPrice, hour.price());
+            priceSum += hour.price();
+            if (chargeDuration > 0) slideWindow(hour);
+        }
+
+        out.println("Nya priser för " + day + " (" + hours.size() + " timmar)");
+        if (lowestPrice != previousLowest)
+            out.printf("Lägsta pris: %.02f öre\n", lowestPrice * 100);
+        if (highestPrice != previousHighest)
+            out.printf("Högsta pris: %.02f öre\n", highestPrice * 100);
+        out.printf("Medelpris: %.02f öre\n", priceSum / horizon.size() * 100);
+        if (indexWindow != previousWindow) {
+            out.printf("Medelpris för fönster: %.2f öre\n", (double) lowestSum / Main.CHARGE_PRICE_SCALE / chargeDuration * 100);
+            out.printf("Påbörja laddning kl %02d:00\n",
+                    horizon.get(indexWindow - chargeDuration).startDate().getHour());
+        }
+    }
+
+    private void slideWindow(Main.hourOfQuarters hour) {
+        int size = horizon.size();
+        windowSum += fixed(hour);
+        if (size > chargeDuration) {
+            windowSum -= fixed(horizon.get(size - 1 - chargeDuration));
+        }
+        if (size >= chargeDuration && (indexWindow == -1 || windowSum < lowestSum)) {
+            indexWindow = size;
+            lowestSum = windowSum;
+        }
+    }
+
+    private static long fixed(Main.hourOfQuarters hour) {
+        return Math.round(hour.price() * Main.CHARGE_PRICE_SCALE);
+    }
+}
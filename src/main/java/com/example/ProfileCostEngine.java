@@ -0,0 +1,86 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Prices many consumption profiles against one price series. A profile holds the kWh used in
+ * each quarter-hour slot (96 on a normal day, 92 or 100 when the clock changes). The cost is a
+ * dot product over primitive arrays and large batches are spread over all cores.
+ */
+public class ProfileCostEngine {
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private final double[] sekPerKWh;
+    private final double[] eurPerKWh;
+
+    public ProfileCostEngine(QuarterPrices prices) {
+        double[] sek = prices.sekArray();
+        double[] exr = prices.exrArray();
+        this.sekPerKWh = sek.clone();
+        this.eurPerKWh = new double[sek.length];
+        for (int i = 0; i < sek.length; i++) {
+            eurPerKWh[i] = sek[i] / exr[i];
+        }
+    }
+
+    public ProfileCostEngine(List<ElpriserAPI.Elpris> prices) {
+        this(QuarterPrices.of(prices));
+    }
+
+    public int slots() {
+        return sekPerKWh.length;
+    }
+
+    public Costs evaluate(double[][] profiles) {
+        for (double[] profile : profiles) checkLength(profile);
+
+        double[] sek = new double[profiles.length];
+        double[] eur = new double[profiles.length];
+        IntStream indices = IntStream.range(0, profiles.length);
+        if (profiles.length >= PARALLEL_THRESHOLD) indices = indices.parallel();
+        indices.forEach(i -> {
+            sek[i] = dot(profiles[i], sekPerKWh);
+            eur[i] = dot(profiles[i], eurPerKWh);
+        });
+        return new Costs(sek, eur);
+    }
+
+    public double costSek(double[] profile) {
+        checkLength(profile);
+        return dot(profile, sekPerKWh);
+    }
+
+    public double costEur(double[] profile) {
+        checkLength(profile);
+        return dot(profile, eurPerKWh);
+    }
+
+    private void checkLength(double[] profile) {
+        if (profile.length != sekPerKWh.length) {
+            throw new IllegalArgumentException("Profile has " + profile.length + " slots, prices have " + sekPerKWh.length);
+        }
+    }
+
+    // Four independent sums so the additions do not wait on each other
+    private static double dot(double[] kWh, double[] price) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (int end = kWh.length & ~3; i < end; i += 4) {
+            s0 += kWh[i] * price[i];
+            s1 += kWh[i + 1] * price[i + 1];
+            s2 += kWh[i + 2] * price[i + 2];
+            s3 += kWh[i + 3] * price[i + 3];
+        }
+        for (; i < kWh.length; i++) {
+            s0 += kWh[i] * price[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Total cost per profile, in the order the profiles were given.
+     */
+    public record Costs(double[] sek, double[] eur) {}
+}
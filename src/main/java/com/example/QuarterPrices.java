@@ -0,0 +1,80 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A price series as primitive arrays with one slot per quarter-hour. Hourly prices are
+ * repeated over their four quarters so that hourly and quarterly days can be mixed.
+ */
+public final class QuarterPrices {
+    public static final Duration SLOT = Duration.ofMinutes(15);
+
+    private final ZonedDateTime start;
+    private final double[] sekPerKWh;
+    private final double[] exr;
+
+    private QuarterPrices(ZonedDateTime start, double[] sekPerKWh, double[] exr) {
+        this.start = start;
+        this.sekPerKWh = sekPerKWh;
+        this.exr = exr;
+    }
+
+    public static QuarterPrices of(List<ElpriserAPI.Elpris> prices) {
+        if (prices.isEmpty()) throw new IllegalArgumentException("No prices");
+
+        int slots = 0;
+        for (ElpriserAPI.Elpris price : prices) {
+            slots += slotsIn(price);
+        }
+        double[] sek = new double[slots];
+        double[] exr = new double[slots];
+        int slot = 0;
+        for (ElpriserAPI.Elpris price : prices) {
+            for (int i = slotsIn(price); i > 0; i--, slot++) {
+                sek[slot] = price.sekPerKWh();
+                exr[slot] = price.exr();
+            }
+        }
+        return new QuarterPrices(prices.getFirst().timeStart(), sek, exr);
+    }
+
+    private static int slotsIn(ElpriserAPI.Elpris price) {
+        long minutes = Duration.between(price.timeStart(), price.timeEnd()).toMinutes();
+        return (int) Math.max(1, minutes / SLOT.toMinutes());
+    }
+
+    public ZonedDateTime start() {
+        return start;
+    }
+
+    public int size() {
+        return sekPerKWh.length;
+    }
+
+    public double sekPerKWh(int slot) {
+        return sekPerKWh[slot];
+    }
+
+    public double exr(int slot) {
+        return exr[slot];
+    }
+
+    public ZonedDateTime timeOf(int slot) {
+        return start.plus(SLOT.multipliedBy(slot));
+    }
+
+    public int slotOf(ZonedDateTime time) {
+        return (int) Math.floorDiv(Duration.between(start, time).toMinutes(), SLOT.toMinutes());
+    }
+
+    double[] sekArray() {
+        return sekPerKWh;
+    }
+
+    double[] exrArray() {
+        return exr;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.PrisLyssnare;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the printed answers to price queries so that repeated queries cost one lookup.
+ * Entries are keyed by zone, date range, query type and parameter and evicted in LRU order.
+ * The cache listens to its ElpriserAPI and drops the entries whose range covers a day when
+ * that day's prices are fetched. Entries built while a day in their range had no data yet,
+ * such as tomorrow before publication, check those days again on every hit and are computed
+ * again once all of them have data. That also covers a day arriving while the entry was being
+ * computed, when the listener has already run before the entry is stored.
+ */
+class ResultCache implements PrisLyssnare {
+    static final int MAX_ENTRIES = 1024;
+
+    private static final Map<ElpriserAPI, ResultCache> CACHES = new WeakHashMap<>();
+
+    enum Query { PRICES, SORTED, CHARGING }
+
+    record Key(ElpriserAPI.Prisklass zone, LocalDate from, LocalDate to, Query query, int parameter) {
+        boolean covers(ElpriserAPI.Prisklass zone, LocalDate date) {
+            return this.zone == zone && !date.isBefore(from) && !date.isAfter(to);
+        }
+    }
+
+    /**
+     * @param complete False if any day in the range had no data when the answer was computed.
+     */
+    record Answer(String text, boolean complete) {}
+
+    private final LinkedHashMap<Key, Answer> entries;
+
+    ResultCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Answer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The cache shared by everyone using the given API, registered as a listener on first use.
+     */
+    static synchronized ResultCache of(ElpriserAPI priceList) {
+        return CACHES.computeIfAbsent(priceList, api -> {
+            ResultCache cache = new ResultCache(MAX_ENTRIES);
+            api.addPrisLyssnare(cache);
+            return cache;
+        });
+    }
+
+    /**
+     * Returns the cached answer for the key, or computes and stores it. Nothing is stored when
+     * the API has caching turned off, since the underlying prices are then fetched every time.
+     */
+    String answer(ElpriserAPI priceList, Key key, Supplier<Answer> compute) {
+        if (!priceList.isCachingEnabled()) return compute.get().text();
+
+        Answer answer = get(key);
+        if (answer != null && !answer.complete()) {
+            boolean allDays = true;
+            for (LocalDate date = key.from(); !date.isAfter(key.to()); date = date.plusDays(1)) {
+                if (priceList.getPriser(date, key.zone()).isEmpty()) allDays = false;
+            }
+            if (allDays) remove(key, answer);
+            answer = get(key);
+        }
+        if (answer == null) {
+            answer = compute.get();
+            synchronized (this) {
+                entries.put(key, answer);
+            }
+        }
+        return answer.text();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void remove(Key key, Answer answer) {
+        entries.remove(key, answer);
+    }
+
+    private synchronized Answer get(Key key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void nyaPriser(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        entries.keySet().removeIf(key -> key.covers(prisklass, datum));
+    }
+}
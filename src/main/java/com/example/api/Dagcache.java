@@ -0,0 +1,55 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Minnes-cache med en dags priser per plats för en prisklass, indexerad med datumets epokdag.
+ * Dagarna ligger i sidor om {@link #SIDSTORLEK} dagar som skapas först när de behövs, så en
+ * träff är två arrayuppslag utan att någon nyckel byggs. Dagar utanför sidornas intervall,
+ * 1970 till och med ungefär 2149, cachas inte. Det finns inga priser för sådana dagar ändå.
+ * Klassen är trådsäker.
+ */
+final class Dagcache {
+
+    static final int SIDSTORLEK = 512;
+    static final int ANTAL_SIDOR = 128;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<List<ElpriserAPI.Elpris>>> sidor =
+            new AtomicReferenceArray<>(ANTAL_SIDOR);
+
+    /**
+     * @return Dagens priser, eller null om dagen inte finns i cachen.
+     */
+    List<ElpriserAPI.Elpris> get(LocalDate datum) {
+        long dag = datum.toEpochDay();
+        if (dag < 0 || dag >= (long) SIDSTORLEK * ANTAL_SIDOR) return null;
+        AtomicReferenceArray<List<ElpriserAPI.Elpris>> sida = sidor.get((int) (dag / SIDSTORLEK));
+        return sida == null ? null : sida.get((int) (dag % SIDSTORLEK));
+    }
+
+    void put(LocalDate datum, List<ElpriserAPI.Elpris> priser) {
+        long dag = datum.toEpochDay();
+        if (dag < 0 || dag >= (long) SIDSTORLEK * ANTAL_SIDOR) return;
+        int index = (int) (dag / SIDSTORLEK);
+        AtomicReferenceArray<List<ElpriserAPI.Elpris>> sida = sidor.get(index);
+        if (sida == null) {
+            sidor.compareAndSet(index, null, new AtomicReferenceArray<>(SIDSTORLEK));
+            sida = sidor.get(index);
+        }
+        sida.set((int) (dag % SIDSTORLEK), priser);
+    }
+
+    int antalDagar() {
+        int antal = 0;
+        for (int i = 0; i < ANTAL_SIDOR; i++) {
+            AtomicReferenceArray<List<ElpriserAPI.Elpris>> sida = sidor.get(i);
+            if (sida == null) continue;
+            for (int j = 0; j < SIDSTORLEK; j++) {
+                if (sida.get(j) != null) antal++;
+            }
+        }
+        return antal;
+    }
+}
@@ -1,18 +1,34 @@
 package com.example.api;
 
 import java.io.IOException;
+import java.io.PrintStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
@@ -27,12 +43,46 @@ public final class ElpriserAPI {
 
     // En återanvändbar HttpClient-instans
     private final HttpClient httpClient;
+
+    // Bas-URL för API-anrop, kan pekas om mot en lokal server i tester
+    private final String apiBaseUrl;
     
     // Flagga för att styra cachlagring
     private final boolean cachingEnabled;
+
+    // Katalog för disk-cachen, som delas av alla processer på samma dator
+    private final Path diskCacheKatalog;
+
+    // Dit statusraderna om var priserna hämtas från skrivs, eller null för inga.
+    // Felmeddelanden går alltid till System.err
+    private final PrintStream logg;
+
+    // Hur länge en markering om att en dag saknas (HTTP 404) gäller innan dagen hämtas igen
+    private static final Duration SAKNAS_GILTIG = Duration.ofMinutes(5);
+
+    // Längsta tid ett anrop mot servern får ta, så att en hängande anslutning inte stoppar alla som väntar
+    private static final Duration HÄMTNING_TIDSGRÄNS = Duration.ofSeconds(20);
+
+    // Längsta tid en tråd väntar på att någon annan ska hämta samma dag innan den hämtar själv
+    private static final Duration LÅS_TIDSGRÄNS = Duration.ofSeconds(30);
+    private static final long LÅS_FÖRSÖK_MS = 50;
+
+    // FileLock gäller hela processen, så trådar i samma process turas om med ett lås per dag och prisklass först.
+    // Dagarna fördelas på ett fast antal lås, så antalet växer inte med varje dag som hämtas
+    // i långlivade processer.
+    // ReentrantLock i stället för synchronized, så att virtuella trådar som väntar inte låser fast sina bärartrådar
+    private static final ReentrantLock[] PROCESS_LÅS = new ReentrantLock[64];
+    static {
+        for (int i = 0; i < PROCESS_LÅS.length; i++) {
+            PROCESS_LÅS[i] = new ReentrantLock();
+        }
+    }
     
-    // Ett enkelt minnes-cache. Nyckeln är en kombination av datum och prisklass, t.ex. "2025-08-30_SE3"
-    private final Map<String, List<Elpris>> inMemoryCache;
+    // Minnes-cache med en Dagcache per prisklass, där dagarna slås upp med epokdag utan att någon nyckel byggs
+    private final Map<Prisklass, Dagcache> inMemoryCache;
+
+    // Lyssnare som får veta när en ny dags priser har hämtats
+    private final List<PrisLyssnare> prisLyssnare = new CopyOnWriteArrayList<>();
 
     /**
      * En record som representerar ett enskilt elpris för en given tidsperiod.
@@ -106,13 +156,72 @@ public final class ElpriserAPI {
      * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
      */
     public ElpriserAPI(boolean enableCaching) {
+        this(enableCaching, System.out);
+    }
+
+    /**
+     * Konstruktor som skriver statusraderna till en annan ström än System.out, t.ex. System.err
+     * när standard ut bara ska innehålla svar som ett annat program läser.
+     * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
+     * @param logg Ström för statusraderna, eller null för inga statusrader. Utan statusrader
+     *             bygger en träff i minnes-cachen inga strängar och allokerar ingenting.
+     */
+    public ElpriserAPI(boolean enableCaching, PrintStream logg) {
+        this(enableCaching, API_BASE_URL, standardDiskCacheKatalog(), logg);
+    }
+
+    /**
+     * Konstruktor som hämtar priser från en annan server än elprisetjustnu.se, t.ex. en lokal stubb i lasttester.
+     * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
+     * @param apiBaseUrl Bas-URL som datum och prisklass läggs till på, utan avslutande snedstreck.
+     */
+    ElpriserAPI(boolean enableCaching, String apiBaseUrl) {
+        this(enableCaching, apiBaseUrl, standardDiskCacheKatalog());
+    }
+
+    /**
+     * @param diskCacheKatalog Katalog för disk-cachen, t.ex. en tillfällig katalog i tester.
+     */
+    ElpriserAPI(boolean enableCaching, String apiBaseUrl, Path diskCacheKatalog) {
+        this(enableCaching, apiBaseUrl, diskCacheKatalog, System.out);
+    }
+
+    private ElpriserAPI(boolean enableCaching, String apiBaseUrl, Path diskCacheKatalog, PrintStream logg) {
+        this.apiBaseUrl = apiBaseUrl;
+        this.diskCacheKatalog = diskCacheKatalog;
+        this.logg = logg;
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(HÄMTNING_TIDSGRÄNS)
                 .build();
         this.cachingEnabled = enableCaching;
-        // ConcurrentHashMap är trådsäker om klassen skulle användas i flera trådar
-        this.inMemoryCache = new ConcurrentHashMap<>();
-        System.out.println("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+        // Alla prisklasser läggs in direkt, så kartan ändras aldrig efter konstruktorn och kan läsas från flera trådar
+        this.inMemoryCache = new EnumMap<>(Prisklass.class);
+        for (Prisklass prisklass : Prisklass.values()) {
+            inMemoryCache.put(prisklass, new Dagcache());
+        }
+        logga("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+    }
+
+    private static Path standardDiskCacheKatalog() {
+        return Path.of(System.getProperty("elpriser.cache.dir",
+                Path.of(System.getProperty("user.home"), ".elpriser_cache").toString()));
+    }
+
+    // Antal dagar i minnes-cachen för alla prisklasser, för tester
+    int antalDagarIMinnet() {
+        int antal = 0;
+        for (Dagcache dagcache : inMemoryCache.values()) {
+            antal += dagcache.antalDagar();
+        }
+        return antal;
+    }
+
+    /**
+     * @return true om hämtade priser sparas i minnes-cachen.
+     */
+    public boolean isCachingEnabled() {
+        return cachingEnabled;
     }
 
     /**
@@ -138,50 +247,133 @@ public final class ElpriserAPI {
      *
      * @param datum Ett {@link LocalDate}-objekt som representerar dagen att hämta priser för.
      * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
-     * @return En lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
+     * @return En oföränderlig lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
      */
     public List<Elpris> getPriser(LocalDate datum, Prisklass prisklass) {
-        String cacheKey = getCacheKey(datum, prisklass);
+        return hämta(datum, prisklass, true);
+    }
+
+    /**
+     * Hämtar elpriser som {@link #getPriser(LocalDate, Prisklass)}, men lägger inte dagen i minnes-cachen.
+     * En dag som redan finns där används, annars läses den från disk-cachen eller nätverket. För den som
+     * går igenom många dagar en gång, så att minnet inte växer med intervallets längd.
+     *
+     * @param datum Dagen att hämta priser för.
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return En oföränderlig lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
+     */
+    public List<Elpris> getPriserUtanMinnescache(LocalDate datum, Prisklass prisklass) {
+        return hämta(datum, prisklass, false);
+    }
+
+    // behåll anger om en dag som inte redan fanns i minnes-cachen ska läggas där
+    private List<Elpris> hämta(LocalDate datum, Prisklass prisklass, boolean behåll) {
+        Dagcache dagcache = inMemoryCache.get(prisklass);
 
         // Steg 1: Kolla minnes-cachen
-        if (cachingEnabled && inMemoryCache.containsKey(cacheKey)) {
-            System.out.println("Hämtar från minnes-cache för " + cacheKey);
-            return inMemoryCache.get(cacheKey);
+        List<Elpris> cachade = cachingEnabled ? dagcache.get(datum) : null;
+        if (cachade != null) {
+            if (logg != null) logg.println("Hämtar från minnes-cache för " + getCacheKey(datum, prisklass));
+            return cachade;
         }
 
-        // Steg 2: Försök ladda från disk-cache (framtida implementation)
-        var priserFrånDisk = loadFromDiskCache(cacheKey);
-        if (cachingEnabled && priserFrånDisk != null && !priserFrånDisk.isEmpty()) {
-             System.out.println("Hämtar från disk-cache för " + cacheKey);
-             inMemoryCache.put(cacheKey, priserFrånDisk); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
-             return priserFrånDisk;
-        }
+        String cacheKey = getCacheKey(datum, prisklass);
 
         // Check for a mock response before making a network call ---
-        if (mockResponseSupplier != null || !datedMockResponses.isEmpty()) {
-            System.out.println("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
+        if (mockAktiv()) {
+            logga("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
             String mockJson = datedMockResponses.getOrDefault(datum, mockResponseSupplier == null ? null : mockResponseSupplier.get());
             if (mockJson == null || mockJson.isBlank()) {
                 return Collections.emptyList();
             }
             List<Elpris> priser = parseSimpleJson(mockJson);
-            if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
+            if (cachingEnabled && behåll && !priser.isEmpty()) {
+                dagcache.put(datum, priser);
             }
+            meddelaLyssnare(datum, prisklass, priser);
             return priser;
         }
         // --- End of mock check ---
 
-        // Steg 3: Hämta från nätverket om det inte finns i cachen
-        System.out.println("Hämtar från nätverket för " + cacheKey);
+        List<Elpris> priser = frånDiskEllerNätverket(datum, prisklass, cacheKey, behåll);
+        // Lyssnarna anropas först när låsen är släppta, så att en långsam lyssnare inte håller upp
+        // andra processer som väntar på samma dag
+        if (!priser.isEmpty()) {
+            meddelaLyssnare(datum, prisklass, priser);
+        }
+        return priser;
+    }
+
+    private List<Elpris> frånDiskEllerNätverket(LocalDate datum, Prisklass prisklass, String cacheKey, boolean behåll) {
+        if (!cachingEnabled) {
+            return hämtaFrånNätverket(datum, prisklass, cacheKey);
+        }
+
+        // Steg 2: Läs från disk-cachen utan lås. Filerna skrivs färdiga och flyttas på plats, så de är alltid hela
+        List<Elpris> priserFrånDisk = loadFromDiskCache(cacheKey);
+        if (priserFrånDisk != null) {
+            return frånDisk(datum, prisklass, cacheKey, priserFrånDisk, behåll);
+        }
+
+        // Steg 3: Hämta från nätverket. Bara en process i taget hämtar samma dag, de andra väntar på låset
+        // och läser sedan det som den första sparade. Den som har väntat för länge hämtar själv
+        long tidsgräns = System.nanoTime() + LÅS_TIDSGRÄNS.toNanos();
+        ReentrantLock processLås = PROCESS_LÅS[Math.floorMod(cacheKey.hashCode(), PROCESS_LÅS.length)];
+        try {
+            if (!processLås.tryLock(LÅS_TIDSGRÄNS.toNanos(), TimeUnit.NANOSECONDS)) {
+                System.err.println("Gav upp väntan på låset för " + cacheKey + ", hämtar utan lås.");
+                return hämtaTillMinnet(datum, prisklass, cacheKey, behåll);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+        try {
+            FileChannel låsfil = låsDiskCache(cacheKey, tidsgräns);
+            try {
+                // Läs igen även utan fillås, den som höll låset kan ha hunnit spara dagen medan vi väntade
+                if ((priserFrånDisk = loadFromDiskCache(cacheKey)) != null) {
+                    return frånDisk(datum, prisklass, cacheKey, priserFrånDisk, behåll);
+                }
+                return hämtaTillMinnet(datum, prisklass, cacheKey, behåll);
+            } finally {
+                if (låsfil != null) {
+                    try {
+                        låsfil.close(); // Släpper även låset
+                    } catch (IOException e) {
+                        System.err.println("Kunde inte släppa låset för disk-cachen: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            processLås.unlock();
+        }
+    }
+
+    private void logga(String rad) {
+        if (logg != null) logg.println(rad);
+    }
+
+    private List<Elpris> hämtaTillMinnet(LocalDate datum, Prisklass prisklass, String cacheKey, boolean behåll) {
+        List<Elpris> priser = hämtaFrånNätverket(datum, prisklass, cacheKey);
+        if (behåll && !priser.isEmpty()) {
+            inMemoryCache.get(prisklass).put(datum, priser);
+        }
+        return priser;
+    }
+
+    // Hämtar en dag från nätverket. Rådata sparas i disk-cachen om cachning är på
+    private List<Elpris> hämtaFrånNätverket(LocalDate datum, Prisklass prisklass, String cacheKey) {
+        logga("Hämtar från nätverket för " + cacheKey);
         String url = buildUrl(datum, prisklass);
         try {
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).timeout(HÄMTNING_TIDSGRÄNS).GET().build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
 
             // Om sidan inte finns (t.ex. priser för morgondagen) returneras 404
             if (response.statusCode() == 404) {
-                System.out.println("Inga priser hittades för " + cacheKey + " (HTTP 404).");
+                logga("Inga priser hittades för " + cacheKey + " (HTTP 404).");
+                if (cachingEnabled) markeraSaknadIDiskCache(cacheKey);
                 return Collections.emptyList();
             }
             if (response.statusCode() != 200) {
@@ -191,26 +383,106 @@ public final class ElpriserAPI {
 
             List<Elpris> priser = parseSimpleJson(response.body());
 
-            // Steg 4: Spara i cache om cachning är på
+            // Steg 4: Spara på disk om cachning är på
             if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
-                saveToDiskCache(cacheKey, response.body()); // Spara rådata till disk (framtida implementation)
+                saveToDiskCache(cacheKey, response.body());
             }
             return priser;
 
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException e) {
+            // Tillfälliga nätverksfel får inte sätta avbrottsflaggan, då slutar t.ex. --watch direkt
             System.err.println("Ett fel inträffade vid hämtning av elpriser: " + e.getMessage());
             // I ett produktionssystem skulle man vilja logga detta fel mer utförligt
+            return Collections.emptyList();
+        } catch (InterruptedException e) {
+            System.err.println("Hämtningen av elpriser avbröts: " + e.getMessage());
             Thread.currentThread().interrupt(); // Bra praxis vid InterruptedException
             return Collections.emptyList();
         }
     }
 
+    private List<Elpris> frånDisk(LocalDate datum, Prisklass prisklass, String cacheKey, List<Elpris> priser,
+                                  boolean behåll) {
+        if (priser.isEmpty()) {
+            logga("Inga priser för " + cacheKey + " enligt disk-cachen.");
+            return priser;
+        }
+        logga("Hämtar från disk-cache för " + cacheKey);
+        if (behåll) {
+            inMemoryCache.get(prisklass).put(datum, priser); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
+        }
+        return priser;
+    }
+
+    /**
+     * Hämtar elpriser för alla dagar från och med {@code från} till och med {@code till}.
+     * Dagarna sätts ihop utan kopiering och dagar som saknar data hoppas över.
+     *
+     * @param från Första dagen att hämta priser för.
+     * @param till Sista dagen att hämta priser för.
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return En {@link Prisserie} med dagarnas priser i datumordning.
+     */
+    public Prisserie getPriser(LocalDate från, LocalDate till, Prisklass prisklass) {
+        List<List<Elpris>> dagar = new ArrayList<>();
+        for (LocalDate datum = från; !datum.isAfter(till); datum = datum.plusDays(1)) {
+            dagar.add(getPriser(datum, prisklass));
+        }
+        return new Prisserie(dagar);
+    }
+
+    /**
+     * Publicerar priserna från och med {@code från} till och med {@code till} för flera prisklasser, dag för dag.
+     * Hämtningen sker i virtuella trådar och håller högst fyra dagar i förväg, för alla
+     * prisklasser. Dagarna läggs inte i minnes-cachen.
+     *
+     * @see Prisleverans
+     */
+    public Flow.Publisher<Prisleverans.Dag> publiceraPriser(LocalDate från, LocalDate till, List<Prisklass> prisklasser) {
+        return publiceraPriser(från, till, prisklasser, 4, Thread::startVirtualThread);
+    }
+
+    /**
+     * Publicerar priserna från och med {@code från} till och med {@code till} för flera prisklasser, dag för dag.
+     *
+     * @param förhämtning Hur många dagar som högst hämtas innan prenumeranten har tagit emot dem. Varje dag
+     *                    hämtas för alla prisklasser, så upp till förhämtning × antal prisklasser hämtningar
+     *                    kan vara på gång samtidigt.
+     * @param executor Där hämtningarna körs.
+     */
+    public Flow.Publisher<Prisleverans.Dag> publiceraPriser(LocalDate från, LocalDate till, List<Prisklass> prisklasser,
+                                                            int förhämtning, Executor executor) {
+        return new Prisleverans(this, från, till, prisklasser, förhämtning, executor);
+    }
+
+    /**
+     * Registrerar en lyssnare som anropas varje gång en dags priser har hämtats från nätverket eller disk-cachen.
+     * Lyssnaren anropas i den tråd som gjorde hämtningen.
+     */
+    public void addPrisLyssnare(PrisLyssnare lyssnare) {
+        prisLyssnare.add(lyssnare);
+    }
+
+    public void removePrisLyssnare(PrisLyssnare lyssnare) {
+        prisLyssnare.remove(lyssnare);
+    }
+
     // --- Privata hjälpmetoder ---
 
+    private static boolean mockAktiv() {
+        return mockResponseSupplier != null || !datedMockResponses.isEmpty();
+    }
+
+    private void meddelaLyssnare(LocalDate datum, Prisklass prisklass, List<Elpris> priser) {
+        if (priser.isEmpty()) return;
+        for (PrisLyssnare lyssnare : prisLyssnare) {
+            lyssnare.nyaPriser(datum, prisklass, priser);
+        }
+    }
+
     private String buildUrl(LocalDate datum, Prisklass prisklass) {
         String formattedDate = datum.format(URL_DATE_FORMATTER);
-        return String.format("%s/%s_%s.json", API_BASE_URL, formattedDate, prisklass.name());
+        return String.format("%s/%s_%s.json", apiBaseUrl, formattedDate, prisklass.name());
     }
     
     private String getCacheKey(LocalDate datum, Prisklass prisklass) {
@@ -220,6 +492,7 @@ public final class ElpriserAPI {
     /**
      * En mycket enkel JSON-parser som är skräddarsydd för just detta API:s svarsformat.
      * Denna metod är inte en generell JSON-parser och är känslig för ändringar i formatet.
+     * Listan som returneras är oföränderlig eftersom den delas via cachen.
      */
     private List<Elpris> parseSimpleJson(String json) {
         List<Elpris> priser = new ArrayList<>();
@@ -264,38 +537,93 @@ public final class ElpriserAPI {
                 System.err.println("Kunde inte tolka ett elpris-objekt: " + cleanObjStr + " - Fel: " + e.getMessage());
             }
         }
-        return priser;
+        return Collections.unmodifiableList(priser);
     }
     
-    // --- Stub-metoder för disk-cache ---
-    
+    // --- Disk-cache ---
+
     /**
-     * STUB: Spara data till en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
+     * Sparar rådata för en dag i disk-cachen. Filen skrivs först under ett tillfälligt namn och flyttas
+     * sedan på plats, så att andra processer som läser utan lås aldrig ser en halvskriven fil.
      */
     private void saveToDiskCache(String cacheKey, String jsonData) {
-        // Framtida implementation:
-        // Path cacheDir = Paths.get(System.getProperty("user.home"), ".elpriser_cache");
-        // Files.createDirectories(cacheDir);
-        // Path cacheFile = cacheDir.resolve(cacheKey + ".json");
-        // Files.writeString(cacheFile, jsonData);
-        // System.out.println("Simulerar: Sparar " + cacheKey + " till disk.");
+        try {
+            Files.createDirectories(diskCacheKatalog);
+            Path tillfällig = Files.createTempFile(diskCacheKatalog, cacheKey, ".tmp");
+            Files.writeString(tillfällig, jsonData);
+            Files.move(tillfällig, diskCacheKatalog.resolve(cacheKey + ".json"),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(diskCacheKatalog.resolve(cacheKey + ".saknas"));
+        } catch (IOException e) {
+            System.err.println("Kunde inte spara " + cacheKey + " i disk-cachen: " + e.getMessage());
+        }
     }
 
     /**
-     * STUB: Läs data från en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
-     * @return En lista av Elpris-objekt om filen finns och kan läsas, annars null.
+     * Läser en dag från disk-cachen utan lås.
+     * @return Dagens priser, en tom lista om en annan process nyligen fick 404 för dagen, eller null om dagen inte finns.
      */
     private List<Elpris> loadFromDiskCache(String cacheKey) {
-        // Framtida implementation:
-        // Path cacheFile = Paths.get(System.getProperty("user.home"), ".elpriser_cache", cacheKey + ".json");
-        // if (Files.exists(cacheFile)) {
-        //     String jsonData = Files.readString(cacheFile);
-        //     return parseSimpleJson(jsonData);
-        // }
-        // System.out.println("Simulerar: Försöker läsa " + cacheKey + " från disk. Fanns ej.");
-        return null;
+        try {
+            Path saknas = diskCacheKatalog.resolve(cacheKey + ".saknas");
+            if (Files.exists(saknas)
+                    && Files.getLastModifiedTime(saknas).toInstant().plus(SAKNAS_GILTIG).isAfter(Instant.now())) {
+                return Collections.emptyList();
+            }
+            return parseSimpleJson(Files.readString(diskCacheKatalog.resolve(cacheKey + ".json")));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Kunde inte läsa " + cacheKey + " från disk-cachen: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Gör att andra processer inte frågar efter en dag som inte är publicerad än, förrän markeringen är gammal
+    private void markeraSaknadIDiskCache(String cacheKey) {
+        try {
+            Files.createDirectories(diskCacheKatalog);
+            Path saknas = diskCacheKatalog.resolve(cacheKey + ".saknas");
+            Files.writeString(saknas, "");
+            Files.setLastModifiedTime(saknas, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            System.err.println("Kunde inte markera " + cacheKey + " som saknad i disk-cachen: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tar ett exklusivt lås för en dag som gäller mellan processer. Låsfilerna tas aldrig bort, eftersom
+     * en process annars kan låsa en fil som en annan process just har ersatt.
+     * @param tidsgräns {@link System#nanoTime()} då väntan ges upp.
+     * @return Kanalen som håller låset och ska stängas efteråt, eller null om låset inte gick att ta i tid.
+     */
+    private FileChannel låsDiskCache(String cacheKey, long tidsgräns) {
+        try {
+            Files.createDirectories(diskCacheKatalog);
+            FileChannel kanal = FileChannel.open(diskCacheKatalog.resolve(cacheKey + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                FileLock lås;
+                while ((lås = kanal.tryLock()) == null && System.nanoTime() - tidsgräns < 0) {
+                    Thread.sleep(LÅS_FÖRSÖK_MS);
+                }
+                if (lås == null) {
+                    kanal.close();
+                    System.err.println("Gav upp väntan på disk-cachen för " + cacheKey + ", hämtar utan lås.");
+                }
+                return lås == null ? null : kanal;
+            } catch (InterruptedException e) {
+                kanal.close();
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (IOException | RuntimeException e) {
+                kanal.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            System.err.println("Kunde inte låsa disk-cachen för " + cacheKey + ": " + e.getMessage());
+            return null;
+        }
     }
 
 
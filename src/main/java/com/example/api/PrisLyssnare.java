@@ -0,0 +1,18 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lyssnare som anropas av {@link ElpriserAPI} när priser för en ny dag har hämtats.
+ */
+@FunctionalInterface
+public interface PrisLyssnare {
+
+    /**
+     * @param datum Dagen som priserna gäller.
+     * @param prisklass Elprisområdet som priserna gäller.
+     * @param priser Dagens priser, oföränderlig och aldrig tom.
+     */
+    void nyaPriser(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser);
+}
@@ -0,0 +1,171 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ett register med prisbevakningar, t.ex. "säg till om någon kvart imorgon kostar under 20 öre".
+ * Bevakningarna hålls per prisklass i arrayer sorterade på gränsvärde. När en ny dag kommer räcker
+ * det att jämföra dagens lägsta och högsta pris med gränserna via binärsökning, så bara de bevakningar
+ * som faktiskt slår till behöver besökas. Registreras som {@link PrisLyssnare} på {@link ElpriserAPI}.
+ */
+public final class Prisbevakningar implements PrisLyssnare {
+
+    public enum Riktning { UNDER, OVER }
+
+    /**
+     * En bevakning på ett gränsvärde i SEK/kWh.
+     */
+    public record Bevakning(long id, ElpriserAPI.Prisklass prisklass, double gräns, Riktning riktning) {}
+
+    /**
+     * Ett larm för en bevakning som slog till. {@code priser} innehåller de perioder som passerade gränsen,
+     * sorterade med det mest fördelaktiga priset först.
+     */
+    public record Larm(Bevakning bevakning, LocalDate datum, List<ElpriserAPI.Elpris> priser) {}
+
+    private final AtomicLong nästaId = new AtomicLong();
+    private final Map<ElpriserAPI.Prisklass, Index> index = new EnumMap<>(ElpriserAPI.Prisklass.class);
+    private final Consumer<Larm> mottagare;
+
+    /**
+     * @param mottagare Anropas en gång för varje bevakning som slår till när nya priser kommer.
+     */
+    public Prisbevakningar(Consumer<Larm> mottagare) {
+        this.mottagare = mottagare;
+        for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+            index.put(prisklass, new Index());
+        }
+    }
+
+    public Bevakning bevaka(ElpriserAPI.Prisklass prisklass, double gräns, Riktning riktning) {
+        Bevakning bevakning = new Bevakning(nästaId.incrementAndGet(), prisklass, gräns, riktning);
+        index.get(prisklass).lägg(bevakning);
+        return bevakning;
+    }
+
+    public boolean avbryt(Bevakning bevakning) {
+        return index.get(bevakning.prisklass()).ta(bevakning);
+    }
+
+    public int antal(ElpriserAPI.Prisklass prisklass) {
+        return index.get(prisklass).antal();
+    }
+
+    @Override
+    public void nyaPriser(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        utvärdera(datum, prisklass, priser, mottagare);
+    }
+
+    /**
+     * Utvärderar alla bevakningar för prisklassen mot en dags priser.
+     * @return Antalet bevakningar som slog till.
+     */
+    public int utvärdera(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser,
+                         Consumer<Larm> mottagare) {
+        if (priser.isEmpty()) return 0;
+        Sortering sortering = index.get(prisklass).sortering();
+
+        List<ElpriserAPI.Elpris> stigande = priser.stream()
+                .sorted(Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh))
+                .toList();
+        double[] sorteradePriser = stigande.stream().mapToDouble(ElpriserAPI.Elpris::sekPerKWh).toArray();
+        double lägsta = sorteradePriser[0];
+        double högsta = sorteradePriser[sorteradePriser.length - 1];
+
+        // UNDER slår till när gränsen ligger över dagens lägsta pris, dvs ett suffix av de sorterade gränserna
+        int larm = 0;
+        for (int i = förstaStörreÄn(sortering.underGränser, lägsta); i < sortering.underGränser.length; i++) {
+            int antalPriser = förstaMinst(sorteradePriser, sortering.underGränser[i]);
+            mottagare.accept(new Larm(sortering.under[i], datum, stigande.subList(0, antalPriser)));
+            larm++;
+        }
+
+        // OVER slår till när gränsen ligger under dagens högsta pris, dvs ett prefix av de sorterade gränserna
+        List<ElpriserAPI.Elpris> fallande = stigande.reversed();
+        int slut = förstaMinst(sortering.överGränser, högsta);
+        for (int i = 0; i < slut; i++) {
+            int antalPriser = sorteradePriser.length - förstaStörreÄn(sorteradePriser, sortering.överGränser[i]);
+            mottagare.accept(new Larm(sortering.över[i], datum, fallande.subList(0, antalPriser)));
+            larm++;
+        }
+        return larm;
+    }
+
+    // Första index där värdet är >= nyckeln
+    private static int förstaMinst(double[] sorterad, double nyckel) {
+        int låg = 0, hög = sorterad.length;
+        while (låg < hög) {
+            int mitt = (låg + hög) >>> 1;
+            if (sorterad[mitt] < nyckel) låg = mitt + 1;
+            else hög = mitt;
+        }
+        return låg;
+    }
+
+    // Första index där värdet är > nyckeln
+    private static int förstaStörreÄn(double[] sorterad, double nyckel) {
+        int låg = 0, hög = sorterad.length;
+        while (låg < hög) {
+            int mitt = (låg + hög) >>> 1;
+            if (sorterad[mitt] <= nyckel) låg = mitt + 1;
+            else hög = mitt;
+        }
+        return låg;
+    }
+
+    private record Sortering(double[] underGränser, Bevakning[] under, double[] överGränser, Bevakning[] över) {
+        static final Sortering TOM = new Sortering(new double[0], new Bevakning[0], new double[0], new Bevakning[0]);
+    }
+
+    /**
+     * Bevakningarna för en prisklass. De sorterade arrayerna byggs om först vid nästa utvärdering
+     * efter en ändring, så många registreringar i rad kostar bara en sortering.
+     */
+    private static final class Index {
+        private final Map<Long, Bevakning> bevakningar = new HashMap<>();
+        private Sortering sortering = Sortering.TOM;
+        private boolean ändrad;
+
+        synchronized void lägg(Bevakning bevakning) {
+            bevakningar.put(bevakning.id(), bevakning);
+            ändrad = true;
+        }
+
+        synchronized boolean ta(Bevakning bevakning) {
+            boolean fanns = bevakningar.remove(bevakning.id()) != null;
+            ändrad |= fanns;
+            return fanns;
+        }
+
+        synchronized int antal() {
+            return bevakningar.size();
+        }
+
+        synchronized Sortering sortering() {
+            if (ändrad) {
+                Bevakning[] sorterade = bevakningar.values().stream()
+                        .sorted(Comparator.comparingDouble(Bevakning::gräns).thenComparingLong(Bevakning::id))
+                        .toArray(Bevakning[]::new);
+                Bevakning[] under = Arrays.stream(sorterade).filter(b -> b.riktning() == Riktning.UNDER).toArray(Bevakning[]::new);
+                Bevakning[] över = Arrays.stream(sorterade).filter(b -> b.riktning() == Riktning.OVER).toArray(Bevakning[]::new);
+                sortering = new Sortering(gränser(under), under, gränser(över), över);
+                ändrad = false;
+            }
+            return sortering;
+        }
+
+        private static double[] gränser(Bevakning[] bevakningar) {
+            double[] gränser = new double[bevakningar.length];
+            for (int i = 0; i < bevakningar.length; i++) gränser[i] = bevakningar[i].gräns();
+            return gränser;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Kompakt lagring av en lång prishistorik för en prisklass.
+ * Priserna lagras som heltal i enheten 1e-5 SEK/kWh ({@link #SKALA}) och delta-kodas som zigzag-varint
+ * i block om {@link #BLOCK} värden, vilket brukar bli 2-3 byte per pris. Tidpunkterna lagras inte utan
+ * räknas fram från starttid och upplösning. Varje block har sin summa, sitt min och sitt max sparade,
+ * så aggregat över långa intervall behöver bara avkoda blocken i intervallets kanter.
+ * Summor räknas med heltal och blir därför exakta. Klassen är inte trådsäker vid skrivning.
+ */
+public final class Prishistorik {
+
+    public static final long SKALA = 100_000;
+    public static final int BLOCK = 128;
+
+    private final Instant start;
+    private final Duration upplösning;
+
+    private byte[] data = new byte[1024];
+    private int dataLängd;
+    private int[] blockStart = new int[16];
+    private long[] blockSumma = new long[16];
+    private long[] blockMin = new long[16];
+    private long[] blockMax = new long[16];
+    private int antalBlock;
+
+    // Värden i det block som ännu inte är fullt och kodat
+    private final long[] öppet = new long[BLOCK];
+    private int storlek;
+
+    /**
+     * @param start Starttiden för det första priset.
+     * @param upplösning Tiden som varje pris gäller, t.ex. 15 minuter.
+     */
+    public Prishistorik(Instant start, Duration upplösning) {
+        if (upplösning.isNegative() || upplösning.isZero()) {
+            throw new IllegalArgumentException("Upplösningen måste vara positiv");
+        }
+        this.start = start;
+        this.upplösning = upplösning;
+    }
+
+    public static long toFixed(double sekPerKWh) {
+        return Math.round(sekPerKWh * SKALA);
+    }
+
+    public static double toSek(long fixed) {
+        return fixed / (double) SKALA;
+    }
+
+    /**
+     * Lägger till priser direkt efter de som redan finns. Priser med längre period än upplösningen,
+     * t.ex. timpriser i en kvartshistorik, upprepas över periodens alla steg.
+     *
+     * @throws IllegalArgumentException om priserna inte börjar där historiken slutar eller inte går jämnt upp i upplösningen.
+     */
+    public void append(List<ElpriserAPI.Elpris> priser) {
+        for (ElpriserAPI.Elpris pris : priser) {
+            Instant förväntad = timeOf(storlek);
+            if (!pris.timeStart().toInstant().equals(förväntad)) {
+                throw new IllegalArgumentException("Priset börjar " + pris.timeStart() + " men historiken fortsätter " + förväntad);
+            }
+            Duration längd = Duration.between(pris.timeStart(), pris.timeEnd());
+            if (längd.isZero() || längd.toNanos() % upplösning.toNanos() != 0) {
+                throw new IllegalArgumentException("Perioden " + längd + " går inte jämnt upp i upplösningen " + upplösning);
+            }
+            long värde = toFixed(pris.sekPerKWh());
+            for (long steg = längd.toNanos() / upplösning.toNanos(); steg > 0; steg--) {
+                appendFixed(värde);
+            }
+        }
+    }
+
+    public void appendFixed(long värde) {
+        öppet[storlek % BLOCK] = värde;
+        storlek++;
+        if (storlek % BLOCK == 0) stängBlock();
+    }
+
+    public int size() {
+        return storlek;
+    }
+
+    public Instant start() {
+        return start;
+    }
+
+    public Duration resolution() {
+        return upplösning;
+    }
+
+    public Instant timeOf(int index) {
+        return start.plus(upplösning.multipliedBy(index));
+    }
+
+    /**
+     * Ungefärligt antal byte som historiken använder.
+     */
+    public long byteSize() {
+        return data.length + (long) blockStart.length * (Integer.BYTES + 3 * Long.BYTES) + (long) BLOCK * Long.BYTES;
+    }
+
+    public double get(int index) {
+        return toSek(getFixed(index));
+    }
+
+    public long getFixed(int index) {
+        Objects.checkIndex(index, storlek);
+        int block = index / BLOCK;
+        if (block == antalBlock) return öppet[index % BLOCK];
+        return avkoda(block, index % BLOCK + 1, null);
+    }
+
+    public int blockCount() {
+        return antalBlock + (storlek % BLOCK == 0 ? 0 : 1);
+    }
+
+    /**
+     * Avkodar ett block till {@code mål}, som måste rymma {@link #BLOCK} värden.
+     * @return Antalet värden i blocket.
+     */
+    public int decodeBlock(int block, long[] mål) {
+        Objects.checkIndex(block, blockCount());
+        if (block == antalBlock) {
+            int antal = storlek % BLOCK;
+            System.arraycopy(öppet, 0, mål, 0, antal);
+            return antal;
+        }
+        avkoda(block, BLOCK, mål);
+        return BLOCK;
+    }
+
+    /**
+     * Exakt summa i enheten 1e-5 SEK/kWh för index {@code från} (inklusive) till {@code till} (exklusive).
+     */
+    public long sumFixed(int från, int till) {
+        Objects.checkFromToIndex(från, till, storlek);
+        long summa = 0;
+        long[] buffert = null;
+        for (int block = från / BLOCK; block * BLOCK < till; block++) {
+            int blockFörst = block * BLOCK;
+            if (block < antalBlock && från <= blockFörst && blockFörst + BLOCK <= till) {
+                summa += blockSumma[block];
+                continue;
+            }
+            if (buffert == null) buffert = new long[BLOCK];
+            int antal = decodeBlock(block, buffert);
+            for (int i = Math.max(från - blockFörst, 0); i < Math.min(till - blockFörst, antal); i++) {
+                summa += buffert[i];
+            }
+        }
+        return summa;
+    }
+
+    public double average(int från, int till) {
+        if (från == till) throw new IllegalArgumentException("Tomt intervall");
+        return toSek(sumFixed(från, till)) / (till - från);
+    }
+
+    public long minFixed(int från, int till) {
+        return extrem(från, till, true);
+    }
+
+    public long maxFixed(int från, int till) {
+        return extrem(från, till, false);
+    }
+
+    private long extrem(int från, int till, boolean min) {
+        Objects.checkFromToIndex(från, till, storlek);
+        if (från == till) throw new IllegalArgumentException("Tomt intervall");
+        long resultat = min ? Long.MAX_VALUE : Long.MIN_VALUE;
+        long[] buffert = null;
+        for (int block = från / BLOCK; block * BLOCK < till; block++) {
+            int blockFörst = block * BLOCK;
+            if (block < antalBlock && från <= blockFörst && blockFörst + BLOCK <= till) {
+                resultat = min ? Math.min(resultat, blockMin[block]) : Math.max(resultat, blockMax[block]);
+                continue;
+            }
+            if (buffert == null) buffert = new long[BLOCK];
+            int antal = decodeBlock(block, buffert);
+            for (int i = Math.max(från - blockFörst, 0); i < Math.min(till - blockFörst, antal); i++) {
+                resultat = min ? Math.min(resultat, buffert[i]) : Math.max(resultat, buffert[i]);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Hittar det billigaste sammanhängande fönstret med {@code längd} priser med exakta heltalssummor.
+     * Vid lika summa väljs det tidigaste fönstret.
+     *
+     * @return Fönstret, eller null om historiken är kortare än {@code längd}.
+     */
+    public Intervall cheapestWindow(int längd) {
+        if (längd <= 0) throw new IllegalArgumentException("Fönstret måste vara minst ett pris");
+        if (storlek < längd) return null;
+
+        long[] ring = new long[längd];
+        long[] buffert = new long[BLOCK];
+        long summa = 0, lägsta = 0;
+        int bästa = 0, index = 0;
+        for (int block = 0; block < blockCount(); block++) {
+            int antal = decodeBlock(block, buffert);
+            for (int i = 0; i < antal; i++, index++) {
+                summa += buffert[i] - ring[index % längd];
+                ring[index % längd] = buffert[i];
+                if (index == längd - 1 || (index >= längd && summa < lägsta)) {
+                    lägsta = summa;
+                    bästa = index - längd + 1;
+                }
+            }
+        }
+        return new Intervall(bästa, längd, lägsta);
+    }
+
+    /**
+     * Ett fönster i historiken med dess exakta summa i enheten 1e-5 SEK/kWh.
+     */
+    public record Intervall(int start, int längd, long summaFixed) {
+        public double medelpris() {
+            return toSek(summaFixed) / längd;
+        }
+    }
+
+    // Avkodar de första värdena i ett stängt block och returnerar det sista
+    private long avkoda(int block, int antal, long[] mål) {
+        int position = blockStart[block];
+        long värde = 0;
+        for (int i = 0; i < antal; i++) {
+            long kodat = 0;
+            int skift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                kodat |= (long) (b & 0x7F) << skift;
+                skift += 7;
+            } while (b < 0);
+            värde += (kodat >>> 1) ^ -(kodat & 1);
+            if (mål != null) mål[i] = värde;
+        }
+        return värde;
+    }
+
+    private void stängBlock() {
+        if (antalBlock == blockStart.length) {
+            int nyLängd = blockStart.length * 2;
+            blockStart = Arrays.copyOf(blockStart, nyLängd);
+            blockSumma = Arrays.copyOf(blockSumma, nyLängd);
+            blockMin = Arrays.copyOf(blockMin, nyLängd);
+            blockMax = Arrays.copyOf(blockMax, nyLängd);
+        }
+        blockStart[antalBlock] = dataLängd;
+
+        long föregående = 0, summa = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (long värde : öppet) {
+            long delta = värde - föregående;
+            skrivVarint((delta << 1) ^ (delta >> 63));
+            föregående = värde;
+            summa += värde;
+            min = Math.min(min, värde);
+            max = Math.max(max, värde);
+        }
+        blockSumma[antalBlock] = summa;
+        blockMin[antalBlock] = min;
+        blockMax[antalBlock] = max;
+        antalBlock++;
+    }
+
+    private void skrivVarint(long värde) {
+        if (dataLängd + 10 > data.length) data = Arrays.copyOf(data, data.length * 2);
+        while ((värde & ~0x7FL) != 0) {
+            data[dataLängd++] = (byte) ((värde & 0x7F) | 0x80);
+            värde >>>= 7;
+        }
+        data[dataLängd++] = (byte) värde;
+    }
+}
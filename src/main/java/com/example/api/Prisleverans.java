@@ -0,0 +1,158 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publicerar priserna för ett datumintervall och flera prisklasser dag för dag, i datumordning och
+ * sedan i prisklassernas ordning. Dagar utan data hoppas över. Varje prenumeration hämtar högst
+ * {@code förhämtning} dagar i förväg för alla prisklasser och dagarna läggs inte i API:ts minnes-cache,
+ * så minnet är konstant oavsett intervallets längd. Hämtningen sker i {@code executor} medan
+ * prenumeranten arbetar med tidigare dagar. Inga dagar skickas utöver prenumerantens efterfrågan.
+ */
+public final class Prisleverans implements Flow.Publisher<Prisleverans.Dag> {
+
+    /**
+     * En dags priser för en prisklass.
+     */
+    public record Dag(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {}
+
+    private final ElpriserAPI api;
+    private final LocalDate från;
+    private final long antalDagar;
+    private final List<ElpriserAPI.Prisklass> prisklasser;
+    private final int förhämtning;
+    private final Executor executor;
+
+    Prisleverans(ElpriserAPI api, LocalDate från, LocalDate till, List<ElpriserAPI.Prisklass> prisklasser,
+                 int förhämtning, Executor executor) {
+        if (prisklasser.isEmpty()) throw new IllegalArgumentException("Minst en prisklass behövs");
+        if (förhämtning < 1) throw new IllegalArgumentException("Förhämtningen måste vara minst en dag");
+        this.api = api;
+        this.från = från;
+        this.antalDagar = Math.max(0, ChronoUnit.DAYS.between(från, till) + 1);
+        this.prisklasser = List.copyOf(prisklasser);
+        this.förhämtning = förhämtning;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Dag> prenumerant) {
+        Prenumeration prenumeration = new Prenumeration(prenumerant);
+        prenumerant.onSubscribe(prenumeration);
+        prenumeration.töm();
+    }
+
+    private final class Prenumeration implements Flow.Subscription {
+        private final Flow.Subscriber<? super Dag> prenumerant;
+        private final AtomicLong efterfrågan = new AtomicLong();
+        private final AtomicInteger arbete = new AtomicInteger();
+
+        // Ändras bara i töm(), som aldrig körs i flera trådar samtidigt
+        private final ArrayDeque<CompletableFuture<Dag>> hämtningar = new ArrayDeque<>();
+        private final long totalt = antalDagar * prisklasser.size();
+        // Förhämtningen räknas i dagar, och varje dag hämtas för alla prisklasser
+        private final long högstIFörväg = (long) förhämtning * prisklasser.size();
+        private long nästa;
+        private CompletableFuture<Dag> väntarPå;
+
+        private volatile boolean avslutad;
+        private volatile Throwable fel;
+
+        Prenumeration(Flow.Subscriber<? super Dag> prenumerant) {
+            this.prenumerant = prenumerant;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fel = new IllegalArgumentException("Efterfrågan måste vara positiv, var " + n);
+            } else {
+                efterfrågan.getAndAccumulate(n, (före, tillägg) -> före + tillägg < 0 ? Long.MAX_VALUE : före + tillägg);
+            }
+            töm();
+        }
+
+        @Override
+        public void cancel() {
+            avslutad = true;
+            töm();
+        }
+
+        // Levererar det som är klart och efterfrågat. Anrop som kommer medan en annan tråd tömmer
+        // räknas upp i 'arbete' och tas om hand av den tråden, så onNext anropas aldrig samtidigt.
+        void töm() {
+            if (arbete.getAndIncrement() != 0) return;
+            int missade = 1;
+            do {
+                loop();
+                missade = arbete.addAndGet(-missade);
+            } while (missade != 0);
+        }
+
+        private void loop() {
+            while (true) {
+                if (avslutad) {
+                    hämtningar.clear();
+                    return;
+                }
+                if (fel != null) {
+                    avsluta();
+                    prenumerant.onError(fel);
+                    return;
+                }
+                fyllPå();
+                CompletableFuture<Dag> först = hämtningar.peek();
+                if (först == null) {
+                    avsluta();
+                    prenumerant.onComplete();
+                    return;
+                }
+                if (!först.isDone()) {
+                    if (väntarPå != först) {
+                        väntarPå = först;
+                        först.whenComplete((dag, undantag) -> töm());
+                    }
+                    return;
+                }
+                Dag dag;
+                try {
+                    dag = först.join();
+                } catch (RuntimeException e) {
+                    fel = e.getCause() != null ? e.getCause() : e;
+                    continue;
+                }
+                if (!dag.priser().isEmpty()) {
+                    if (efterfrågan.get() == 0) return;
+                    efterfrågan.decrementAndGet();
+                    hämtningar.poll();
+                    prenumerant.onNext(dag);
+                } else {
+                    hämtningar.poll();
+                }
+            }
+        }
+
+        private void fyllPå() {
+            while (hämtningar.size() < högstIFörväg && nästa < totalt) {
+                LocalDate datum = från.plusDays(nästa / prisklasser.size());
+                ElpriserAPI.Prisklass prisklass = prisklasser.get((int) (nästa % prisklasser.size()));
+                nästa++;
+                hämtningar.add(CompletableFuture.supplyAsync(
+                        () -> new Dag(datum, prisklass, api.getPriserUtanMinnescache(datum, prisklass)), executor));
+            }
+        }
+
+        private void avsluta() {
+            avslutad = true;
+            hämtningar.clear();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.api;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * En oföränderlig prisserie som sätter ihop flera dagars prislistor utan att kopiera dem.
+ * Dagarna delas direkt med cachen i {@link ElpriserAPI}, så serien är billig att skapa och
+ * kan delas mellan trådar. Åtkomst via {@link #get(int)} och {@link #forEach(Consumer)} allokerar inget.
+ */
+public final class Prisserie extends AbstractList<ElpriserAPI.Elpris> implements RandomAccess {
+
+    private final List<ElpriserAPI.Elpris>[] dagar;
+    // Index för första priset i varje dag, plus totala storleken sist
+    private final int[] början;
+
+    @SuppressWarnings("unchecked")
+    Prisserie(List<List<ElpriserAPI.Elpris>> dagar) {
+        this.dagar = dagar.stream().filter(dag -> !dag.isEmpty()).toArray(List[]::new);
+        this.början = new int[this.dagar.length + 1];
+        for (int i = 0; i < this.dagar.length; i++) {
+            början[i + 1] = början[i] + this.dagar[i].size();
+        }
+    }
+
+    @Override
+    public ElpriserAPI.Elpris get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", storlek: " + size());
+        }
+        int dag = dagFör(index);
+        return dagar[dag].get(index - början[dag]);
+    }
+
+    @Override
+    public int size() {
+        return början[dagar.length];
+    }
+
+    @Override
+    public void forEach(Consumer<? super ElpriserAPI.Elpris> action) {
+        for (List<ElpriserAPI.Elpris> dag : dagar) {
+            for (int i = 0; i < dag.size(); i++) {
+                action.accept(dag.get(i));
+            }
+        }
+    }
+
+    /**
+     * Antal dagar med data i serien.
+     */
+    public int antalDagar() {
+        return dagar.length;
+    }
+
+    /**
+     * Prislistan för en av dagarna i serien, i samma ordning som de lades till.
+     */
+    public List<ElpriserAPI.Elpris> dag(int index) {
+        return dagar[index];
+    }
+
+    // Binärsökning över dagarnas startindex
+    private int dagFör(int index) {
+        int låg = 0, hög = dagar.length - 1;
+        while (låg < hög) {
+            int mitt = (låg + hög + 1) >>> 1;
+            if (början[mitt] <= index) låg = mitt;
+            else hög = mitt - 1;
+        }
+        return låg;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.example.TestPrices.quarterPrices;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BatteryOptimizerTest {
+    @Test
+    void chargesLowAndDischargesHigh() {
+        BatteryOptimizer optimizer = new BatteryOptimizer(quarterPrices(0.1, 1.0, 0.1, 1.0));
+
+        BatteryOptimizer.Plan plan = optimizer.optimize(new BatteryOptimizer.Battery(1, 4, 4, 0.81, 0, 10));
+
+        assertThat(plan.gridKWh()).containsExactly(new double[]{1 / 0.9, -0.9, 1 / 0.9, -0.9}, within(1e-9));
+        assertThat(plan.stateOfChargeKWh()).containsExactly(new double[]{0, 1, 0, 1, 0}, within(1e-9));
+        assertThat(plan.profitSek()).isCloseTo(2 * (0.9 - 0.1 / 0.9), within(1e-9));
+    }
+
+    @Test
+    void staysIdle_whenSpreadDoesNotCoverLosses() {
+        BatteryOptimizer optimizer = new BatteryOptimizer(quarterPrices(0.50, 0.55, 0.50, 0.56));
+
+        BatteryOptimizer.Plan plan = optimizer.optimize(new BatteryOptimizer.Battery(1, 4, 4, 0.8, 0.5, 10));
+
+        assertThat(plan.profitSek()).isCloseTo(0.56 * 0.5 * Math.sqrt(0.8), within(1e-9));
+        assertThat(plan.gridKWh()).containsExactly(new double[]{0, 0, 0, -0.5 * Math.sqrt(0.8)}, within(1e-9));
+    }
+
+    @Test
+    void respectsPowerLimits() {
+        BatteryOptimizer optimizer = new BatteryOptimizer(quarterPrices(0.1, 0.1, 0.1, 0.1, 2.0));
+
+        BatteryOptimizer.Plan plan = optimizer.optimize(new BatteryOptimizer.Battery(10, 2, 40, 1.0, 0, 20));
+
+        // 2 kW over a quarter is 0.5 kWh per slot
+        for (int t = 0; t < 4; t++) assertThat(plan.gridKWh()[t]).isCloseTo(0.5, within(1e-9));
+        assertThat(plan.gridKWh()[4]).isCloseTo(-2.0, within(1e-9));
+        assertThat(plan.profitSek()).isCloseTo(2 * 2.0 - 2 * 0.1, within(1e-9));
+    }
+
+    @Test
+    void matchesExhaustiveSearch_onSmallInstances() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            double[] sek = new double[6];
+            for (int i = 0; i < sek.length; i++) sek[i] = random.nextDouble() * 2 - 0.2;
+            BatteryOptimizer.Battery battery = new BatteryOptimizer.Battery(
+                    4, 4 + random.nextInt(8), 4 + random.nextInt(8), 0.7 + random.nextDouble() * 0.3, random.nextInt(5), 4);
+
+            BatteryOptimizer.Plan plan = new BatteryOptimizer(quarterPrices(sek)).optimize(battery);
+
+            assertThat(plan.profitSek()).isCloseTo(exhaustive(sek, battery, 0, (int) battery.initialKWh()), within(1e-9));
+        }
+    }
+
+    @Test
+    void optimizeAll_returnsOnePlanPerBatteryInOrder() {
+        double[] sek = new double[7 * 96];
+        for (int i = 0; i < sek.length; i++) sek[i] = 0.5 + 0.4 * Math.sin(i * 2 * Math.PI / 96);
+        BatteryOptimizer optimizer = new BatteryOptimizer(quarterPrices(sek));
+        List<BatteryOptimizer.Battery> batteries = List.of(
+                new BatteryOptimizer.Battery(5, 3, 3, 0.9),
+                new BatteryOptimizer.Battery(10, 5, 5, 0.9),
+                new BatteryOptimizer.Battery(13.5, 5, 5, 0.85));
+
+        List<BatteryOptimizer.Plan> plans = optimizer.optimizeAll(batteries);
+
+        assertThat(plans).extracting(BatteryOptimizer.Plan::battery).containsExactlyElementsOf(batteries);
+        assertThat(plans.get(1).profitSek()).isGreaterThan(plans.get(0).profitSek()).isGreaterThan(0);
+        for (BatteryOptimizer.Plan plan : plans) {
+            for (double soc : plan.stateOfChargeKWh()) {
+                assertThat(soc).isBetween(0.0, plan.battery().capacityKWh() + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void battery_rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new BatteryOptimizer.Battery(10, 5, 5, 1.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BatteryOptimizer.Battery(10, 5, 5, 0.9, 11, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Every level is 1 kWh when the capacity is 4 and there are 4 levels
+    private static double exhaustive(double[] sek, BatteryOptimizer.Battery battery, int t, int level) {
+        if (t == sek.length) return 0;
+        double efficiency = Math.sqrt(battery.roundTripEfficiency());
+        double best = Double.NEGATIVE_INFINITY;
+        for (int next = 0; next <= 4; next++) {
+            int delta = next - level;
+            if (delta > battery.maxChargeKW() / 4 + 1e-9 || -delta > battery.maxDischargeKW() / 4 + 1e-9) continue;
+            double grid = delta > 0 ? delta / efficiency : delta * efficiency;
+            best = Math.max(best, -grid * sek[t] + exhaustive(sek, battery, t + 1, next));
+        }
+        return best;
+    }
+}
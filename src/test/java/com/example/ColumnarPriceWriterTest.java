@@ -0,0 +1,82 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarPriceWriterTest {
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void writtenRowsReadBackUnchanged_acrossSeveralRowGroupsAndZones() throws IOException {
+        List<ColumnarPriceReader.Row> expected = new ArrayList<>();
+        ZonedDateTime start = ZonedDateTime.of(2025, 10, 1, 0, 0, 0, 0, ZoneId.of("Europe/Stockholm"));
+        for (int quarter = 0; quarter < 60 * 96; quarter++) {
+            ZonedDateTime timeStart = start.plusMinutes(15L * quarter);
+            for (ElpriserAPI.Prisklass zone : List.of(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4)) {
+                double sek = Math.round((0.3 + Math.sin(quarter / 10.0) * 0.2 + zone.ordinal()) * 1e5) / 1e5;
+                expected.add(new ColumnarPriceReader.Row(zone,
+                        new ElpriserAPI.Elpris(sek, sek / 11.2, 11.2, timeStart, timeStart.plusMinutes(15))));
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarPriceWriter writer = new ColumnarPriceWriter(bytes, List.of(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4))) {
+            for (ColumnarPriceReader.Row row : expected) writer.write(row.zone(), row.price());
+        }
+
+        List<ColumnarPriceReader.Row> actual = new ArrayList<>();
+        try (ColumnarPriceReader reader = new ColumnarPriceReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThat(reader.zones()).containsExactly(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4);
+            List<ColumnarPriceReader.Row> rowGroup;
+            while ((rowGroup = reader.nextRowGroup()) != null) actual.addAll(rowGroup);
+        }
+
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).zone()).isEqualTo(expected.get(i).zone());
+            assertThat(actual.get(i).price().sekPerKWh()).isEqualTo(expected.get(i).price().sekPerKWh());
+            assertThat(actual.get(i).price().timeStart().toInstant()).isEqualTo(expected.get(i).price().timeStart().toInstant());
+            assertThat(actual.get(i).price().timeEnd().toInstant()).isEqualTo(expected.get(i).price().timeEnd().toInstant());
+        }
+        // Less than half of the 24 bytes per row that the raw values alone would take
+        assertThat(bytes.size()).isLessThan(expected.size() * 24 / 2);
+    }
+
+    @Test
+    void export_writesEveryDayInRange() throws IOException {
+        String day1 = """
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""";
+        String day2 = """
+                [{"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"}]""";
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), day1);
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 5), day2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ColumnarPriceWriter.export(new ElpriserAPI(), List.of(ElpriserAPI.Prisklass.SE3),
+                LocalDate.of(2025, 9, 4), LocalDate.of(2025, 9, 6), bytes);
+
+        try (ColumnarPriceReader reader = new ColumnarPriceReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            List<ColumnarPriceReader.Row> rows = reader.nextRowGroup();
+            assertThat(rows).extracting(row -> row.price().sekPerKWh()).containsExactly(0.10, 0.20);
+            assertThat(rows.getFirst().price()).isEqualTo(new ElpriserAPI.Elpris(0.10, 0.01, 10.0,
+                    ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+            assertThat(reader.nextRowGroup()).isNull();
+        }
+    }
+}
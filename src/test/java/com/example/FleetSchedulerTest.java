@@ -0,0 +1,180 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.TestPrices.quarterPrices;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FleetSchedulerTest {
+    private static final ZonedDateTime START = TestPrices.START;
+
+    @Test
+    void quarterPrices_expandsHourlyPricesToFourSlots() {
+        List<ElpriserAPI.Elpris> hourly = List.of(
+                new ElpriserAPI.Elpris(0.10, 0.01, 10.0, START, START.plusHours(1)),
+                new ElpriserAPI.Elpris(0.20, 0.02, 10.0, START.plusHours(1), START.plusHours(2)));
+
+        QuarterPrices prices = QuarterPrices.of(hourly);
+
+        assertThat(prices.size()).isEqualTo(8);
+        assertThat(prices.sekPerKWh(3)).isEqualTo(0.10);
+        assertThat(prices.sekPerKWh(4)).isEqualTo(0.20);
+        assertThat(prices.slotOf(START.plusMinutes(75))).isEqualTo(5);
+    }
+
+    @Test
+    void schedule_usesCheapestSlotsInsideWindow() {
+        QuarterPrices prices = quarterPrices(0.01, 0.50, 0.10, 0.40, 0.20, 0.05);
+        FleetScheduler scheduler = new FleetScheduler(prices, 100);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(List.of(
+                new FleetScheduler.Vehicle("ev", 5, 10, 1, 5)));
+
+        assertThat(schedule.isComplete()).isTrue();
+        assertThat(schedule.powerKW(0, 0)).isZero();
+        assertThat(schedule.powerKW(0, 2)).isEqualTo(10);
+        assertThat(schedule.powerKW(0, 4)).isEqualTo(10);
+        assertThat(schedule.powerKW(0, 5)).isZero();
+        assertThat(schedule.totalCostSek()).isCloseTo(2.5 * 0.10 + 2.5 * 0.20, within(1e-9));
+    }
+
+    @Test
+    void schedule_sharesSiteCapacityAndMovesFlexibleVehicleForUrgentOne() {
+        QuarterPrices prices = quarterPrices(0.10, 0.20, 0.30, 0.40);
+        FleetScheduler scheduler = new FleetScheduler(prices, 10);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(List.of(
+                new FleetScheduler.Vehicle("flexible", 2.5, 10, 0, 4),
+                new FleetScheduler.Vehicle("urgent", 2.5, 10, 0, 1)));
+
+        assertThat(schedule.isComplete()).isTrue();
+        assertThat(schedule.powerKW(1, 0)).isEqualTo(10);
+        assertThat(schedule.powerKW(0, 0)).isZero();
+        assertThat(schedule.powerKW(0, 1)).isEqualTo(10);
+    }
+
+    @Test
+    void schedule_movesEarlierVehicle_whenThatLowersTotalCost() {
+        FleetScheduler scheduler = new FleetScheduler(quarterPrices(0.5, 0.1, 1.0), 10);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(List.of(
+                new FleetScheduler.Vehicle("a", 2.5, 10, 0, 2),
+                new FleetScheduler.Vehicle("b", 2.5, 10, 1, 3)));
+
+        assertThat(schedule.isComplete()).isTrue();
+        assertThat(schedule.powerKW(0, 0)).isEqualTo(10);
+        assertThat(schedule.powerKW(1, 1)).isEqualTo(10);
+        assertThat(schedule.totalCostSek()).isCloseTo(1.5, within(1e-9));
+    }
+
+    @Test
+    void schedule_findsCompleteSchedule_whenOneExists() {
+        FleetScheduler scheduler = new FleetScheduler(quarterPrices(0.5, 0.1, 1.0), 10);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(List.of(
+                new FleetScheduler.Vehicle("a", 2.5, 10, 0, 2),
+                new FleetScheduler.Vehicle("b", 2.5, 10, 1, 3),
+                new FleetScheduler.Vehicle("c", 2.5, 10, 2, 3)));
+
+        assertThat(schedule.isComplete()).isTrue();
+        assertThat(schedule.totalCostSek()).isCloseTo(4.0, within(1e-9));
+    }
+
+    @Test
+    void schedule_matchesExhaustiveSearch_onSmallInstances() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            double[] sek = new double[5];
+            for (int i = 0; i < sek.length; i++) sek[i] = random.nextDouble() * 2 - 0.2;
+            int siteUnits = 1 + random.nextInt(2);
+            List<FleetScheduler.Vehicle> vehicles = new ArrayList<>();
+            for (int v = 0, count = 2 + random.nextInt(3); v < count; v++) {
+                int plugIn = random.nextInt(sek.length);
+                int deadline = plugIn + 1 + random.nextInt(sek.length - plugIn);
+                vehicles.add(new FleetScheduler.Vehicle("ev" + v, 2.5 * (1 + random.nextInt(2)), 10, plugIn, deadline));
+            }
+
+            FleetScheduler.Schedule schedule = new FleetScheduler(quarterPrices(sek), 10 * siteUnits).schedule(vehicles);
+
+            double[] best = exhaustive(sek, vehicles, 0, new int[sek.length], siteUnits);
+            double unmet = 0;
+            for (int v = 0; v < vehicles.size(); v++) unmet += schedule.unmetKWh(v);
+            assertThat(unmet).isCloseTo(best[0], within(1e-9));
+            assertThat(schedule.totalCostSek()).isCloseTo(best[1], within(1e-9));
+        }
+    }
+
+    // Tries every set of slots for every vehicle, each slot giving 2.5 kWh at 10 kW, and returns the least
+    // unmet energy and, for that, the least cost
+    private static double[] exhaustive(double[] sek, List<FleetScheduler.Vehicle> vehicles, int v, int[] used, int siteUnits) {
+        if (v == vehicles.size()) return new double[]{0, 0};
+        FleetScheduler.Vehicle vehicle = vehicles.get(v);
+        int units = (int) Math.round(vehicle.energyKWh() / 2.5);
+        int window = vehicle.deadlineSlot() - vehicle.plugInSlot();
+        double[] best = null;
+        for (int mask = 0; mask < 1 << window; mask++) {
+            if (Integer.bitCount(mask) > units) continue;
+            boolean fits = true;
+            for (int i = 0; i < window; i++) {
+                if ((mask >> i & 1) == 1 && used[vehicle.plugInSlot() + i] == siteUnits) fits = false;
+            }
+            if (!fits) continue;
+            double cost = 0;
+            for (int i = 0; i < window; i++) {
+                if ((mask >> i & 1) == 1) {
+                    used[vehicle.plugInSlot() + i]++;
+                    cost += 2.5 * sek[vehicle.plugInSlot() + i];
+                }
+            }
+            double[] rest = exhaustive(sek, vehicles, v + 1, used, siteUnits);
+            double unmet = rest[0] + 2.5 * (units - Integer.bitCount(mask));
+            cost += rest[1];
+            if (best == null || unmet < best[0] - 1e-9 || (unmet < best[0] + 1e-9 && cost < best[1])) {
+                best = new double[]{unmet, cost};
+            }
+            for (int i = 0; i < window; i++) {
+                if ((mask >> i & 1) == 1) used[vehicle.plugInSlot() + i]--;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void schedule_reportsUnmetEnergy_whenWindowIsTooShort() {
+        FleetScheduler scheduler = new FleetScheduler(quarterPrices(0.10, 0.20), 100);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(List.of(
+                new FleetScheduler.Vehicle("ev", 10, 11, 0, 2)));
+
+        assertThat(schedule.isComplete()).isFalse();
+        assertThat(schedule.unmetKWh(0)).isCloseTo(4.5, within(1e-9));
+    }
+
+    @Test
+    void schedule_neverExceedsSiteCapacity_forLargeFleet() {
+        Random random = new Random(42);
+        double[] sek = new double[3 * 96];
+        for (int i = 0; i < sek.length; i++) sek[i] = random.nextDouble();
+        List<FleetScheduler.Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int plugIn = random.nextInt(sek.length - 40);
+            vehicles.add(new FleetScheduler.Vehicle("ev" + i, 5 + random.nextInt(40), 11, plugIn, plugIn + 40));
+        }
+        FleetScheduler scheduler = new FleetScheduler(quarterPrices(sek), 400);
+
+        FleetScheduler.Schedule schedule = scheduler.schedule(vehicles);
+
+        for (int slot = 0; slot < sek.length; slot++) {
+            double load = 0;
+            for (int v = 0; v < vehicles.size(); v++) load += schedule.powerKW(v, slot);
+            assertThat(load).isLessThanOrEqualTo(400 + 1e-6);
+        }
+    }
+}
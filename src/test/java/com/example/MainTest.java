@@ -1,19 +1,30 @@
 package com.example;
 
 import com.example.api.ElpriserAPI;
+import com.example.api.ElpriserAPIFixture;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -74,6 +85,29 @@ class MainTest {
         assertTrue(priser.isEmpty());
     }
 
+    @Test
+    void getPriser_shouldNotCorruptCachedDay_whenDaysAreMerged() {
+        String todayJson = """
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+                 {"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"}]""";
+        String tomorrowJson = """
+                [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"}]""";
+        LocalDate today = LocalDate.of(2025, 9, 4);
+        ElpriserAPI.setMockResponseForDate(today, todayJson);
+        ElpriserAPI.setMockResponseForDate(today.plusDays(1), tomorrowJson);
+        ElpriserAPI api = new ElpriserAPI();
+
+        List<ElpriserAPI.Elpris> first = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+        List<ElpriserAPI.Elpris> merged = api.getPriser(today, today.plusDays(2), ElpriserAPI.Prisklass.SE3);
+        api.getPriser(today, today.plusDays(1), ElpriserAPI.Prisklass.SE3);
+
+        assertThat(merged).hasSize(3);
+        assertThat(merged.get(2).sekPerKWh()).isEqualTo(0.30);
+        assertThat(api.getPriser(today, ElpriserAPI.Prisklass.SE3)).isSameAs(first).hasSize(2);
+        assertThatThrownBy(() -> first.add(merged.get(2))).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> merged.add(first.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
     @Test
     void showHelp_whenNoArguments() {
         Main.main(new String[]{});
@@ -441,6 +475,78 @@ class MainTest {
         assertThat(output).contains("Medelpris: " + formatOre(expectedMean) + " öre");
     }
 
+    @Test
+    void batchMode_answersQueriesInInputOrder(@TempDir Path tempDir) throws IOException {
+        String mockJson = """
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+                 {"SEK_per_kWh":0.05,"EUR_per_kWh":0.005,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"},
+                 {"SEK_per_kWh":0.15,"EUR_per_kWh":0.015,"EXR":10.0,"time_start":"2025-09-04T03:00:00+02:00","time_end":"2025-09-04T04:00:00+02:00"}]""";
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), mockJson);
+
+        Path queries = tempDir.resolve("queries.txt");
+        Files.writeString(queries, """
+                --zone SE3 --date 2025-09-04 --charging 2h
+                --zone SE3 --date 2025-09-04 --sorted
+                --zone SE5 --date 2025-09-04
+                """);
+
+        Main.main(new String[]{"--batch", queries.toString()});
+
+        String output = bos.toString();
+        int charging = output.indexOf("# --zone SE3 --date 2025-09-04 --charging 2h");
+        int sorted = output.indexOf("# --zone SE3 --date 2025-09-04 --sorted");
+        int invalid = output.indexOf("# --zone SE5 --date 2025-09-04");
+        assertThat(charging).isNotNegative().isLessThan(sorted);
+        assertThat(sorted).isLessThan(invalid);
+        assertThat(output.substring(charging, sorted)).contains("Påbörja laddning kl 01:00");
+        assertThat(output.substring(sorted, invalid)).contains("03-04 15,00 öre");
+        assertThat(output.substring(invalid)).contains("Invalid zone input");
+        // Nothing but the answers reaches stdout, so each block holds only its own answer
+        assertThat(output).startsWith("# --zone SE3 --date 2025-09-04 --charging 2h");
+        assertThat(output.substring(charging, sorted).lines().skip(1)).allMatch(line -> line.startsWith("Påbörja laddning")
+                || line.startsWith("Medelpris för fönster"));
+        assertThat(output).doesNotContain("Hämtar från", "ANVÄNDER MOCK-DATA", "ElpriserAPI initialiserat");
+    }
+
+    @Test
+    void export_readsDiskCacheForEveryRepeatedZone_withoutKeepingDaysInMemory(@TempDir Path tempDir) throws IOException {
+        byte[] json = """
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]"""
+                .getBytes(StandardCharsets.UTF_8);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/prices/", exchange -> {
+            requests.incrementAndGet();
+            try (exchange) {
+                exchange.sendResponseHeaders(200, json.length);
+                exchange.getResponseBody().write(json);
+            }
+        });
+        server.start();
+        try {
+            String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/api/v1/prices";
+            ElpriserAPI priceList = ElpriserAPIFixture.api(true, baseUrl, tempDir.resolve("cache"));
+            Path file = tempDir.resolve("prices.elpc");
+            String[] args = {"--zone", "SE3", "--zone", "SE4", "--date", "2025-09-04", "--to", "2025-09-05",
+                    "--export", file.toString()};
+
+            Main.determineUsage(args, priceList, System.out);
+            assertThat(requests).hasValue(4);
+            // A second export of the same range is served from the disk cache
+            Main.determineUsage(args, ElpriserAPIFixture.api(true, baseUrl, tempDir.resolve("cache")), System.out);
+            assertThat(requests).hasValue(4);
+
+            try (InputStream in = Files.newInputStream(file); ColumnarPriceReader reader = new ColumnarPriceReader(in)) {
+                assertThat(reader.zones()).containsExactly(ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4);
+                assertThat(reader.nextRowGroup()).extracting(ColumnarPriceReader.Row::zone).containsExactly(
+                        ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4, ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4);
+            }
+            assertThat(ElpriserAPIFixture.antalDagarIMinnet(priceList)).isZero();
+        } finally {
+            server.stop(0);
+        }
+    }
+
     private String formatOre(double sekPerKWh) {
         double ore = sekPerKWh * 100.0;
         DecimalFormatSymbols symbols = new DecimalFormatSymbols(new Locale("sv", "SE"));
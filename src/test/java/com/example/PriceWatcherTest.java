@@ -0,0 +1,131 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.ElpriserAPIFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceWatcherTest {
+    private static final String TODAY_JSON = """
+            [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+             {"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"},
+             {"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T03:00:00+02:00","time_end":"2025-09-04T04:00:00+02:00"}]""";
+    private static final String TOMORROW_JSON = """
+            [{"SEK_per_kWh":0.05,"EUR_per_kWh":0.005,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"},
+             {"SEK_per_kWh":0.06,"EUR_per_kWh":0.006,"EXR":10.0,"time_start":"2025-09-05T01:00:00+02:00","time_end":"2025-09-05T02:00:00+02:00"}]""";
+
+    private final LocalDate today = LocalDate.of(2025, 9, 4);
+    private ByteArrayOutputStream bos;
+    private PrintStream out;
+    private Locale originalLocale;
+
+    @BeforeEach
+    void setup() {
+        originalLocale = Locale.getDefault();
+        Locale.setDefault(Locale.of("sv", "SE"));
+        bos = new ByteArrayOutputStream();
+        out = new PrintStream(bos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(originalLocale);
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void poll_printsOnlyChanges_whenTomorrowArrives() {
+        ElpriserAPI.setMockResponseForDate(today, TODAY_JSON);
+        PriceWatcher watcher = new PriceWatcher(new ElpriserAPI(), ElpriserAPI.Prisklass.SE3, 2, () -> today, out);
+
+        assertThat(watcher.poll()).isTrue();
+        assertThat(bos.toString())
+                .contains("Lägsta pris: 10,00 öre")
+                .contains("Högsta pris: 30,00 öre")
+                .contains("Påbörja laddning kl 01:00");
+
+        bos.reset();
+        assertThat(watcher.poll()).isFalse();
+        assertThat(bos.toString()).doesNotContain("Medelpris");
+
+        ElpriserAPI.setMockResponseForDate(today.plusDays(1), TOMORROW_JSON);
+        assertThat(watcher.poll()).isTrue();
+        String output = bos.toString();
+        assertThat(output)
+                .contains("Nya priser för 2025-09-05")
+                .contains("Lägsta pris: 5,00 öre")
+                .doesNotContain("Högsta pris")
+                .contains("Medelpris: 14,20 öre")
+                .contains("Medelpris för fönster: 5,50 öre")
+                .contains("Påbörja laddning kl 00:00");
+    }
+
+    @Test
+    void poll_restartsHorizon_whenDateRollsOver() {
+        ElpriserAPI.setMockResponseForDate(today, TODAY_JSON);
+        ElpriserAPI.setMockResponseForDate(today.plusDays(1), TOMORROW_JSON);
+        AtomicReference<LocalDate> clock = new AtomicReference<>(today);
+        PriceWatcher watcher = new PriceWatcher(new ElpriserAPI(), ElpriserAPI.Prisklass.SE3, -1, clock::get, out);
+
+        watcher.poll();
+        bos.reset();
+        clock.set(today.plusDays(1));
+
+        assertThat(watcher.poll()).isTrue();
+        assertThat(bos.toString())
+                .contains("Bevakar priser för SE3 från 2025-09-05")
+                .contains("Högsta pris: 6,00 öre")
+                .contains("Medelpris: 5,50 öre")
+                .doesNotContain("laddning");
+    }
+
+    @Test
+    void poll_keepsNoDaysInMemoryCache_overManyDays() {
+        for (int day = 0; day < 30; day++) ElpriserAPI.setMockResponseForDate(today.plusDays(day), TOMORROW_JSON);
+        ElpriserAPI priceList = new ElpriserAPI();
+        AtomicReference<LocalDate> clock = new AtomicReference<>(today);
+        PriceWatcher watcher = new PriceWatcher(priceList, ElpriserAPI.Prisklass.SE3, 2, clock::get, out);
+
+        for (int day = 0; day < 30; day++) {
+            clock.set(today.plusDays(day));
+            watcher.poll();
+        }
+
+        assertThat(ElpriserAPIFixture.antalDagarIMinnet(priceList)).isZero();
+    }
+
+    @Test
+    void run_keepsPolling_afterNetworkError(@TempDir Path diskCache) throws InterruptedException {
+        // Nothing listens on port 1, so every fetch fails with an IOException
+        ElpriserAPI unreachable = ElpriserAPIFixture.api(false, "http://localhost:1/api/v1/prices", diskCache);
+        CountDownLatch polls = new CountDownLatch(3);
+        PriceWatcher watcher = new PriceWatcher(unreachable, ElpriserAPI.Prisklass.SE3, 2, () -> {
+            polls.countDown();
+            return today;
+        }, out);
+
+        Thread thread = Thread.ofVirtual().start(() -> watcher.run(Duration.ofMillis(10)));
+        try {
+            assertThat(polls.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(thread.isAlive()).isTrue();
+        } finally {
+            thread.interrupt();
+            thread.join(5_000);
+        }
+        assertThat(thread.isAlive()).isFalse();
+    }
+}
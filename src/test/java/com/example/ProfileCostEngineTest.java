@@ -0,0 +1,65 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ProfileCostEngineTest {
+    private static final ZonedDateTime START = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+
+    private static List<ElpriserAPI.Elpris> hourlyPrices(int hours) {
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        for (int hour = 0; hour < hours; hour++) {
+            double sek = 0.10 * (hour + 1);
+            prices.add(new ElpriserAPI.Elpris(sek, sek / 11, 11.0, START.plusHours(hour), START.plusHours(hour + 1)));
+        }
+        return prices;
+    }
+
+    @Test
+    void evaluate_returnsCostPerProfileInSekAndEur() {
+        ProfileCostEngine engine = new ProfileCostEngine(hourlyPrices(24));
+        double[] flat = new double[96];
+        Arrays.fill(flat, 0.25);
+        double[] firstHourOnly = new double[96];
+        Arrays.fill(firstHourOnly, 0, 4, 1.0);
+
+        ProfileCostEngine.Costs costs = engine.evaluate(new double[][]{flat, firstHourOnly});
+
+        // One kWh per hour at 0.10, 0.20, ... 2.40 SEK
+        assertThat(costs.sek()[0]).isCloseTo(30.0, within(1e-9));
+        assertThat(costs.eur()[0]).isCloseTo(30.0 / 11, within(1e-9));
+        assertThat(costs.sek()[1]).isCloseTo(0.40, within(1e-9));
+    }
+
+    @Test
+    void evaluate_givesSameResult_forLargeParallelBatch() {
+        ProfileCostEngine engine = new ProfileCostEngine(hourlyPrices(25));
+        double[][] profiles = new double[2000][100];
+        for (int p = 0; p < profiles.length; p++) {
+            for (int slot = 0; slot < 100; slot++) profiles[p][slot] = (p + slot) % 7 * 0.1;
+        }
+
+        ProfileCostEngine.Costs costs = engine.evaluate(profiles);
+
+        for (int p = 0; p < profiles.length; p += 97) {
+            assertThat(costs.sek()[p]).isCloseTo(engine.costSek(profiles[p]), within(1e-12));
+        }
+    }
+
+    @Test
+    void evaluate_rejectsProfileOfWrongLength() {
+        ProfileCostEngine engine = new ProfileCostEngine(hourlyPrices(24));
+
+        assertThatThrownBy(() -> engine.evaluate(new double[][]{new double[100]}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
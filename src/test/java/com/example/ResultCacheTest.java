@@ -0,0 +1,160 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 4);
+    private static final String TODAY_JSON = """
+            [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""";
+    private static final String TOMORROW_JSON = """
+            [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"}]""";
+
+    private final AtomicInteger computed = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    private static ResultCache.Key key(ElpriserAPI.Prisklass zone, ResultCache.Query query) {
+        return new ResultCache.Key(zone, TODAY, TODAY.plusDays(1), query, 0);
+    }
+
+    // Computes an answer from the current prices the way Main does, counting every computation
+    private ResultCache.Answer compute(ElpriserAPI api, ResultCache.Key key) {
+        computed.incrementAndGet();
+        var prices = api.getPriser(key.from(), key.to(), key.zone());
+        return new ResultCache.Answer(prices.size() + " priser", prices.antalDagar() == 2);
+    }
+
+    @Test
+    void identicalQueries_areComputedOnce() {
+        ElpriserAPI.setMockResponseForDate(TODAY, TODAY_JSON);
+        ElpriserAPI.setMockResponseForDate(TODAY.plusDays(1), TOMORROW_JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        ResultCache cache = ResultCache.of(api);
+        ResultCache.Key key = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.PRICES);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("2 priser");
+        }
+
+        assertThat(computed).hasValue(1);
+        assertThat(ResultCache.of(api)).isSameAs(cache);
+    }
+
+    @Test
+    void incompleteAnswer_isRecomputedWhenMissingDayArrives() {
+        ElpriserAPI.setMockResponseForDate(TODAY, TODAY_JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        ResultCache cache = ResultCache.of(api);
+        ResultCache.Key key = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.PRICES);
+
+        assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("1 priser");
+        assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("1 priser");
+        assertThat(computed).hasValue(1);
+
+        ElpriserAPI.setMockResponseForDate(TODAY.plusDays(1), TOMORROW_JSON);
+
+        assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("2 priser");
+        assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("2 priser");
+        assertThat(computed).hasValue(2);
+    }
+
+    @Test
+    void answerComputedWhileMissingDayArrives_isNotServedStale() throws Exception {
+        ElpriserAPI.setMockResponseForDate(TODAY, TODAY_JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        ResultCache cache = ResultCache.of(api);
+        ResultCache.Key key = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.PRICES);
+        CountDownLatch computed = new CountDownLatch(1);
+        CountDownLatch arrived = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.answer(api, key, () -> {
+            ResultCache.Answer answer = compute(api, key);
+            computed.countDown();
+            try {
+                arrived.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return answer;
+        }));
+        assertThat(computed.await(5, TimeUnit.SECONDS)).isTrue();
+        // Another thread fetches tomorrow, so nyaPriser runs before the first answer is stored
+        CompletableFuture.runAsync(() -> {
+            ElpriserAPI.setMockResponseForDate(TODAY.plusDays(1), TOMORROW_JSON);
+            api.getPriser(TODAY.plusDays(1), ElpriserAPI.Prisklass.SE3);
+        }).get(5, TimeUnit.SECONDS);
+        arrived.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("1 priser");
+        assertThat(cache.answer(api, key, () -> compute(api, key))).isEqualTo("2 priser");
+    }
+
+    @Test
+    void newDay_onlyDropsAnswersCoveringIt() {
+        ResultCache cache = new ResultCache(10);
+        ElpriserAPI.setMockResponseForDate(TODAY, TODAY_JSON);
+        ElpriserAPI.setMockResponseForDate(TODAY.plusDays(1), TOMORROW_JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        for (ElpriserAPI.Prisklass zone : List.of(ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4)) {
+            ResultCache.Key key = key(zone, ResultCache.Query.SORTED);
+            cache.answer(api, key, () -> compute(api, key));
+        }
+
+        cache.nyaPriser(TODAY.plusDays(1), ElpriserAPI.Prisklass.SE4, List.of());
+        cache.nyaPriser(TODAY.plusDays(2), ElpriserAPI.Prisklass.SE3, List.of());
+
+        assertThat(cache.size()).isEqualTo(1);
+        ResultCache.Key se3 = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.SORTED);
+        cache.answer(api, se3, () -> compute(api, se3));
+        assertThat(computed).hasValue(2);
+    }
+
+    @Test
+    void leastRecentlyUsedAnswer_isEvictedWhenFull() {
+        ResultCache cache = new ResultCache(2);
+        ElpriserAPI.setMockResponse(TODAY_JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        ResultCache.Key se1 = key(ElpriserAPI.Prisklass.SE1, ResultCache.Query.PRICES);
+        ResultCache.Key se2 = key(ElpriserAPI.Prisklass.SE2, ResultCache.Query.PRICES);
+        ResultCache.Key se3 = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.PRICES);
+
+        cache.answer(api, se1, () -> compute(api, se1));
+        cache.answer(api, se2, () -> compute(api, se2));
+        cache.answer(api, se1, () -> compute(api, se1));
+        cache.answer(api, se3, () -> compute(api, se3));
+        cache.answer(api, se1, () -> compute(api, se1));
+        assertThat(computed).hasValue(3);
+
+        cache.answer(api, se2, () -> compute(api, se2));
+        assertThat(computed).hasValue(4);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void nothingIsStored_whenCachingIsOff() {
+        ElpriserAPI.setMockResponse(TODAY_JSON);
+        ElpriserAPI api = new ElpriserAPI(false);
+        ResultCache cache = ResultCache.of(api);
+        ResultCache.Key key = key(ElpriserAPI.Prisklass.SE3, ResultCache.Query.CHARGING);
+
+        cache.answer(api, key, () -> compute(api, key));
+        cache.answer(api, key, () -> compute(api, key));
+
+        assertThat(computed).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Price series shared by the tests of the optimizers.
+ */
+final class TestPrices {
+    static final ZonedDateTime START = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+
+    private TestPrices() {
+    }
+
+    /**
+     * One quarter per price starting at {@link #START}, with EUR at a fixed exchange rate of 10.
+     */
+    static QuarterPrices quarterPrices(double... sekPerKWh) {
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        for (int i = 0; i < sekPerKWh.length; i++) {
+            ZonedDateTime start = START.plusMinutes(15L * i);
+            prices.add(new ElpriserAPI.Elpris(sekPerKWh[i], sekPerKWh[i] / 10, 10.0, start, start.plusMinutes(15)));
+        }
+        return QuarterPrices.of(prices);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cache hit path before and after keying by epoch day. "before" is the old
+ * String key with containsKey followed by get, "after" is {@link Dagcache} behind an EnumMap.
+ * The getPriser rows time the whole public hit path, first with its status line as it was
+ * before and then on an API without status lines. Skipped unless enabled:
+ * <pre>
+ * mvn test -Dtest=DagcacheBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DagcacheBenchmarkTest {
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5_000_000);
+    private static final int DAYS = 365;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final ElpriserAPI.Prisklass[] ZONES = ElpriserAPI.Prisklass.values();
+
+    private final LocalDate[] dates = new LocalDate[DAYS];
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < DAYS; i++) dates[i] = FIRST_DAY.plusDays(i);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void hitPath_beforeAndAfter() {
+        List<ElpriserAPI.Elpris> day = List.of();
+        Map<String, List<ElpriserAPI.Elpris>> before = new ConcurrentHashMap<>();
+        Map<ElpriserAPI.Prisklass, Dagcache> after = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        for (ElpriserAPI.Prisklass zone : ZONES) {
+            after.put(zone, new Dagcache());
+            for (LocalDate date : dates) {
+                before.put(date.format(DateTimeFormatter.ISO_LOCAL_DATE) + "_" + zone.name(), day);
+                after.get(zone).put(date, day);
+            }
+        }
+
+        Result stringKeys = measure(i -> {
+            String key = dates[i % DAYS].format(DateTimeFormatter.ISO_LOCAL_DATE) + "_" + ZONES[i & 3].name();
+            return before.containsKey(key) ? before.get(key) : null;
+        });
+        Result epochDays = measure(i -> after.get(ZONES[i & 3]).get(dates[i % DAYS]));
+
+        ElpriserAPI.setMockResponse("""
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-01-01T00:00:00+01:00","time_end":"2025-01-01T01:00:00+01:00"}]""");
+        ElpriserAPI logging = new ElpriserAPI(true, new PrintStream(OutputStream.nullOutputStream()));
+        ElpriserAPI quiet = new ElpriserAPI(true, (PrintStream) null);
+        for (LocalDate date : dates) {
+            for (ElpriserAPI.Prisklass zone : ZONES) {
+                logging.getPriser(date, zone);
+                quiet.getPriser(date, zone);
+            }
+        }
+        Result getPriserLogging = measure(i -> logging.getPriser(dates[i % DAYS], ZONES[i & 3]));
+        Result getPriserQuiet = measure(i -> quiet.getPriser(dates[i % DAYS], ZONES[i & 3]));
+
+        System.out.printf("%-16s %10s %12s%n", "hit path", "ns/op", "bytes/op");
+        stringKeys.print("before");
+        epochDays.print("after");
+        getPriserLogging.print("getPriser before");
+        getPriserQuiet.print("getPriser after");
+
+        assertThat(epochDays.bytesPerOp()).isLessThan(1);
+        assertThat(epochDays.nanosPerOp()).isLessThan(stringKeys.nanosPerOp());
+        assertThat(getPriserQuiet.bytesPerOp()).isLessThan(1);
+        assertThat(getPriserQuiet.nanosPerOp()).isLessThan(getPriserLogging.nanosPerOp());
+    }
+
+    private interface Lookup {
+        List<ElpriserAPI.Elpris> get(int i);
+    }
+
+    private record Result(double nanosPerOp, double bytesPerOp) {
+        void print(String name) {
+            System.out.printf(Locale.ROOT, "%-16s %10.1f %12.1f%n", name, nanosPerOp, bytesPerOp);
+        }
+    }
+
+    private static Result measure(Lookup lookup) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long hits = 0;
+        for (int i = 0; i < ITERATIONS; i++) if (lookup.get(i) != null) hits++;
+
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) if (lookup.get(i) != null) hits++;
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+        assertThat(hits).isEqualTo(2L * ITERATIONS);
+        return new Result((double) nanos / ITERATIONS, (double) bytes / ITERATIONS);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DagcacheTest {
+    private static final List<ElpriserAPI.Elpris> PRISER = List.of(new ElpriserAPI.Elpris(0.1, 0.01, 10.0,
+            ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+
+    @Test
+    void get_hittarBaraDagarSomLagtsIn() {
+        Dagcache cache = new Dagcache();
+        LocalDate dag = LocalDate.of(2025, 9, 4);
+
+        cache.put(dag, PRISER);
+
+        assertThat(cache.get(dag)).isSameAs(PRISER);
+        assertThat(cache.get(dag.plusDays(1))).isNull();
+        assertThat(cache.get(dag.minusYears(1))).isNull();
+    }
+
+    @Test
+    void put_överSidgränser() {
+        Dagcache cache = new Dagcache();
+        LocalDate sistaISidan = LocalDate.ofEpochDay(Dagcache.SIDSTORLEK * 40L - 1);
+
+        cache.put(sistaISidan, PRISER);
+        cache.put(sistaISidan.plusDays(1), List.of());
+
+        assertThat(cache.get(sistaISidan)).isSameAs(PRISER);
+        assertThat(cache.get(sistaISidan.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void dagarUtanförIntervallet_cachasInte() {
+        Dagcache cache = new Dagcache();
+        LocalDate förFörsta = LocalDate.ofEpochDay(-1);
+        LocalDate efterSista = LocalDate.ofEpochDay((long) Dagcache.SIDSTORLEK * Dagcache.ANTAL_SIDOR);
+
+        cache.put(förFörsta, PRISER);
+        cache.put(efterSista, PRISER);
+
+        assertThat(cache.get(förFörsta)).isNull();
+        assertThat(cache.get(efterSista)).isNull();
+        assertThat(cache.get(LocalDate.MIN)).isNull();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElpriserAPIDiskCacheTest {
+    private static final LocalDate DAG = LocalDate.of(2025, 9, 4);
+    private static final String JSON = """
+            [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+             {"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"}]""";
+
+    @TempDir
+    Path diskCache;
+
+    private final AtomicInteger anrop = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ElpriserAPI.clearMockResponse();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/prices/", this::svara);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/api/v1/prices";
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        server.stop(0);
+    }
+
+    // Svarar långsamt så att alla som frågar samtidigt hinner börja vänta; 2025-09-05 finns inte
+    private void svara(HttpExchange exchange) throws IOException {
+        anrop.incrementAndGet();
+        try (exchange) {
+            Thread.sleep(300);
+            if (exchange.getRequestURI().getPath().contains("2025/09-05")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void sammaDag_hämtasEnGång_avFleraInstanserSamtidigt() throws Exception {
+        List<ElpriserAPI> instanser = List.of(
+                new ElpriserAPI(true, baseUrl, diskCache), new ElpriserAPI(true, baseUrl, diskCache));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ElpriserAPI.Elpris>>> resultat = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                ElpriserAPI api = instanser.get(i % 2);
+                resultat.add(executor.submit(() -> {
+                    start.await();
+                    return api.getPriser(DAG, ElpriserAPI.Prisklass.SE3);
+                }));
+            }
+            start.countDown();
+        }
+
+        for (Future<List<ElpriserAPI.Elpris>> priser : resultat) {
+            assertThat(priser.get()).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.10, 0.20);
+        }
+        assertThat(anrop).hasValue(1);
+        assertThat(diskCache.resolve("2025-09-04_SE3.json")).exists();
+        assertThat(diskCache).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void nyInstans_läserFrånDiskOchMeddelarLyssnare() {
+        new ElpriserAPI(true, baseUrl, diskCache).getPriser(DAG, ElpriserAPI.Prisklass.SE3);
+        ElpriserAPI api = new ElpriserAPI(true, baseUrl, diskCache);
+        List<LocalDate> meddelade = new ArrayList<>();
+        api.addPrisLyssnare((datum, prisklass, priser) -> meddelade.add(datum));
+
+        assertThat(api.getPriser(DAG, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+
+        assertThat(anrop).hasValue(1);
+        assertThat(meddelade).containsExactly(DAG);
+    }
+
+    @Test
+    void lyssnare_anropasFörstNärLåsetÄrSläppt() {
+        ElpriserAPI api = new ElpriserAPI(true, baseUrl, diskCache);
+        List<Boolean> låsetLedigt = new ArrayList<>();
+        api.addPrisLyssnare((datum, prisklass, priser) -> {
+            try (FileChannel kanal = FileChannel.open(diskCache.resolve("2025-09-04_SE3.lock"), StandardOpenOption.WRITE);
+                 FileLock lås = kanal.tryLock()) {
+                låsetLedigt.add(lås != null);
+            } catch (IOException | RuntimeException e) {
+                // OverlappingFileLockException om den här processen fortfarande håller låset
+                låsetLedigt.add(false);
+            }
+        });
+
+        api.getPriser(DAG, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(låsetLedigt).containsExactly(true);
+    }
+
+    @Test
+    void saknadDag_frågasInteEfterIgenAvAndraInstanser() {
+        assertThat(new ElpriserAPI(true, baseUrl, diskCache).getPriser(DAG.plusDays(1), ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(new ElpriserAPI(true, baseUrl, diskCache).getPriser(DAG.plusDays(1), ElpriserAPI.Prisklass.SE3)).isEmpty();
+
+        assertThat(anrop).hasValue(1);
+    }
+
+    @Test
+    void utanCachning_användsInteDisken() {
+        new ElpriserAPI(false, baseUrl, diskCache).getPriser(DAG, ElpriserAPI.Prisklass.SE3);
+        new ElpriserAPI(false, baseUrl, diskCache).getPriser(DAG, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(anrop).hasValue(2);
+        assertThat(diskCache).isEmptyDirectory();
+    }
+
+    @Test
+    void sammaDag_hämtasEnGång_avFleraProcesserSamtidigt() throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Process> processer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            processer.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Delprocess.class.getName(), baseUrl, diskCache.toString())
+                    .redirectErrorStream(true)
+                    .start());
+        }
+
+        for (Process process : processer) {
+            assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+            String utskrift = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(utskrift).contains("Antal priser: 2");
+        }
+        assertThat(anrop).hasValue(1);
+        assertThat(Files.readString(diskCache.resolve("2025-09-04_SE3.json"))).isEqualTo(JSON);
+    }
+
+    /**
+     * Körs i egna processer av testet ovan.
+     */
+    static final class Delprocess {
+        public static void main(String[] args) {
+            ElpriserAPI api = new ElpriserAPI(true, args[0], Path.of(args[1]));
+            System.out.println("Antal priser: " + api.getPriser(DAG, ElpriserAPI.Prisklass.SE3).size());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.api;
+
+import java.nio.file.Path;
+
+/**
+ * Lets tests in other packages create an {@link ElpriserAPI} against a local server.
+ */
+public final class ElpriserAPIFixture {
+
+    private ElpriserAPIFixture() {
+    }
+
+    public static ElpriserAPI api(boolean enableCaching, String apiBaseUrl, Path diskCacheKatalog) {
+        return new ElpriserAPI(enableCaching, apiBaseUrl, diskCacheKatalog);
+    }
+
+    public static int antalDagarIMinnet(ElpriserAPI api) {
+        return api.antalDagarIMinnet();
+    }
+}
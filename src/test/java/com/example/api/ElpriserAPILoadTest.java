@@ -0,0 +1,258 @@
+package com.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for {@link ElpriserAPI#getPriser(LocalDate, ElpriserAPI.Prisklass)} against a local stub server.
+ * Skipped unless enabled, run it with:
+ * <pre>
+ * mvn test -Dtest=ElpriserAPILoadTest -Dloadtest=true -Dloadtest.threads=200 -Dloadtest.virtual=true
+ * </pre>
+ * Every run appends one line to {@code target/loadtest-report.tsv} so runs can be compared.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ElpriserAPILoadTest {
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 64);
+    private static final boolean VIRTUAL = Boolean.getBoolean("loadtest.virtual");
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("loadtest.warmup", 500);
+    private static final int DAYS = Integer.getInteger("loadtest.days", 30);
+    private static final int MISSING_DAYS = Integer.getInteger("loadtest.missingDays", 0);
+    private static final boolean CACHING = Boolean.parseBoolean(System.getProperty("loadtest.caching", "true"));
+    private static final long SEED = Long.getLong("loadtest.seed", 1);
+    private static final Path REPORT = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.tsv"));
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 10, 1);
+    private static final ElpriserAPI.Prisklass[] ZONES = ElpriserAPI.Prisklass.values();
+
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    private HttpServer server;
+    private PrintStream originalOut;
+
+    // Each run gets its own disk cache so that every run fetches from the stub server
+    @TempDir
+    Path diskCache;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        ElpriserAPI.clearMockResponse();
+        originalOut = System.out;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/prices/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        System.setOut(originalOut);
+        server.stop(0);
+    }
+
+    @Test
+    void getPriser_underConcurrentCallers() throws Exception {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/api/v1/prices";
+        // The API logs every call, send that to a null stream so the console is not flooded
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        run(new ElpriserAPI(CACHING, baseUrl, diskCache.resolve("warmup")), WARMUP_REQUESTS);
+        upstreamRequests.set(0);
+
+        long start = System.nanoTime();
+        LatencyHistogram histogram = run(new ElpriserAPI(CACHING, baseUrl, diskCache.resolve("run")), REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.setOut(originalOut);
+
+        report(histogram, seconds);
+        assertThat(histogram.count()).isEqualTo((long) THREADS * REQUESTS);
+        if (CACHING && MISSING_DAYS == 0) {
+            assertThat(upstreamRequests.get()).isGreaterThanOrEqualTo(Math.min(DAYS * ZONES.length, THREADS * REQUESTS));
+        }
+    }
+
+    private LatencyHistogram run(ElpriserAPI api, int requestsPerThread) throws Exception {
+        ThreadFactory factory = VIRTUAL ? Thread.ofVirtual().factory() : Thread.ofPlatform().factory();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<LatencyHistogram>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(factory)) {
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(SEED + t);
+                results.add(executor.submit(() -> {
+                    LatencyHistogram histogram = new LatencyHistogram();
+                    go.await();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+                        ElpriserAPI.Prisklass zone = ZONES[random.nextInt(ZONES.length)];
+                        long before = System.nanoTime();
+                        api.getPriser(date, zone);
+                        histogram.record(System.nanoTime() - before);
+                    }
+                    return histogram;
+                }));
+            }
+            go.countDown();
+        }
+
+        LatencyHistogram total = new LatencyHistogram();
+        for (Future<LatencyHistogram> result : results) {
+            total.add(result.get());
+        }
+        return total;
+    }
+
+    private void report(LatencyHistogram histogram, double seconds) throws IOException {
+        int availableKeys = (DAYS - MISSING_DAYS) * ZONES.length;
+        String[] header = {"time", "threads", "virtual", "requests", "days", "missingDays", "caching",
+                "throughput/s", "p50_us", "p99_us", "p999_us", "max_us", "upstream", "duplicateFetches"};
+        String[] values = {
+                LocalDateTime.now().withNano(0).toString(),
+                String.valueOf(THREADS),
+                String.valueOf(VIRTUAL),
+                String.valueOf(histogram.count()),
+                String.valueOf(DAYS),
+                String.valueOf(MISSING_DAYS),
+                String.valueOf(CACHING),
+                String.format(Locale.ROOT, "%.0f", histogram.count() / seconds),
+                micros(histogram.percentile(50)),
+                micros(histogram.percentile(99)),
+                micros(histogram.percentile(99.9)),
+                micros(histogram.max()),
+                String.valueOf(upstreamRequests.get()),
+                String.valueOf(Math.max(0, upstreamRequests.get() - availableKeys))
+        };
+
+        for (int i = 0; i < header.length; i++) {
+            System.out.printf("%-18s %s%n", header[i], values[i]);
+        }
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        StringBuilder lines = new StringBuilder();
+        if (Files.notExists(REPORT)) lines.append(String.join("\t", header)).append('\n');
+        lines.append(String.join("\t", values)).append('\n');
+        Files.writeString(REPORT, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        upstreamRequests.incrementAndGet();
+        String file = exchange.getRequestURI().getPath().substring("/api/v1/prices/".length());
+        // yyyy/MM-dd_SE3.json
+        LocalDate date = LocalDate.parse(file.substring(0, 4) + "-" + file.substring(5, 10));
+        try (exchange) {
+            if (date.isAfter(FIRST_DAY.plusDays(DAYS - MISSING_DAYS - 1))) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = responses.computeIfAbsent(date.toString(), d -> json(date));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static byte[] json(LocalDate date) {
+        StringBuilder json = new StringBuilder("[");
+        for (int quarter = 0; quarter < 96; quarter++) {
+            if (quarter > 0) json.append(',');
+            String start = date.atTime(quarter / 4, quarter % 4 * 15) + ":00+02:00";
+            String end = (quarter == 95 ? date.plusDays(1).atStartOfDay() : date.atTime((quarter + 1) / 4, (quarter + 1) % 4 * 15)) + ":00+02:00";
+            double sek = 0.05 + (quarter * 37 % 96) / 100.0;
+            json.append(String.format(Locale.ROOT,
+                    "{\"SEK_per_kWh\":%.5f,\"EUR_per_kWh\":%.5f,\"EXR\":11.0,\"time_start\":\"%s\",\"time_end\":\"%s\"}",
+                    sek, sek / 11, start, end));
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Log-linear latency histogram in nanoseconds with 64 buckets per power of two (under 2% error).
+     * Each thread records into its own instance and the results are merged afterwards.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 64;
+        private final long[] counts = new long[SUB_BUCKETS * 59];
+        private long count;
+        private long max;
+
+        void record(long nanos) {
+            counts[index(Math.max(0, nanos))]++;
+            count++;
+            max = Math.max(max, nanos);
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long max() {
+            return max;
+        }
+
+        long percentile(double percentile) {
+            long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) return Math.min(valueOf(i), max);
+            }
+            return max;
+        }
+
+        private static int index(long value) {
+            if (value < 2 * SUB_BUCKETS) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - 6;
+            return shift * SUB_BUCKETS + (int) (value >>> shift);
+        }
+
+        // Upper bound of the values that fall in the bucket
+        private static long valueOf(int index) {
+            if (index < 2 * SUB_BUCKETS) return index;
+            int shift = index / SUB_BUCKETS - 1;
+            long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+            return ((mantissa + 1) << shift) - 1;
+        }
+    }
+}
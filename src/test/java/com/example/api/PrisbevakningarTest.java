@@ -0,0 +1,95 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrisbevakningarTest {
+    private static final LocalDate DATUM = LocalDate.of(2025, 9, 5);
+    private static final String JSON = """
+            [{"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-05T00:00:00+02:00","time_end":"2025-09-05T01:00:00+02:00"},
+             {"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-05T01:00:00+02:00","time_end":"2025-09-05T02:00:00+02:00"},
+             {"SEK_per_kWh":0.15,"EUR_per_kWh":0.015,"EXR":10.0,"time_start":"2025-09-05T02:00:00+02:00","time_end":"2025-09-05T03:00:00+02:00"},
+             {"SEK_per_kWh":0.50,"EUR_per_kWh":0.05,"EXR":10.0,"time_start":"2025-09-05T03:00:00+02:00","time_end":"2025-09-05T04:00:00+02:00"}]""";
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void nyaPriser_larmarBaraBevakningarSomPasserasIRattPrisklass() {
+        List<Prisbevakningar.Larm> larm = new ArrayList<>();
+        Prisbevakningar bevakningar = new Prisbevakningar(larm::add);
+        Prisbevakningar.Bevakning under20 = bevakningar.bevaka(ElpriserAPI.Prisklass.SE3, 0.20, Prisbevakningar.Riktning.UNDER);
+        bevakningar.bevaka(ElpriserAPI.Prisklass.SE3, 0.10, Prisbevakningar.Riktning.UNDER);
+        Prisbevakningar.Bevakning över40 = bevakningar.bevaka(ElpriserAPI.Prisklass.SE3, 0.40, Prisbevakningar.Riktning.OVER);
+        bevakningar.bevaka(ElpriserAPI.Prisklass.SE3, 0.50, Prisbevakningar.Riktning.OVER);
+        bevakningar.bevaka(ElpriserAPI.Prisklass.SE4, 0.90, Prisbevakningar.Riktning.UNDER);
+
+        ElpriserAPI.setMockResponseForDate(DATUM, JSON);
+        ElpriserAPI api = new ElpriserAPI();
+        api.addPrisLyssnare(bevakningar);
+        api.getPriser(DATUM, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(larm).extracting(Prisbevakningar.Larm::bevakning).containsExactly(under20, över40);
+        assertThat(larm.get(0).priser()).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.10, 0.15);
+        assertThat(larm.get(1).priser()).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.50);
+        assertThat(larm.get(0).datum()).isEqualTo(DATUM);
+    }
+
+    @Test
+    void avbryt_taBortBevakningenFranIndexet() {
+        List<Prisbevakningar.Larm> larm = new ArrayList<>();
+        Prisbevakningar bevakningar = new Prisbevakningar(larm::add);
+        Prisbevakningar.Bevakning bevakning = bevakningar.bevaka(ElpriserAPI.Prisklass.SE1, 1.0, Prisbevakningar.Riktning.UNDER);
+
+        assertThat(bevakningar.avbryt(bevakning)).isTrue();
+        assertThat(bevakningar.avbryt(bevakning)).isFalse();
+        bevakningar.nyaPriser(DATUM, ElpriserAPI.Prisklass.SE1, priser(0.10, 0.20));
+
+        assertThat(larm).isEmpty();
+        assertThat(bevakningar.antal(ElpriserAPI.Prisklass.SE1)).isZero();
+    }
+
+    @Test
+    void utvärdera_gerSammaResultatSomFullGenomsokning() {
+        Random random = new Random(7);
+        Prisbevakningar bevakningar = new Prisbevakningar(larm -> {});
+        int förväntade = 0;
+        double[] dagensPriser = new double[96];
+        for (int i = 0; i < dagensPriser.length; i++) dagensPriser[i] = 0.2 + random.nextDouble();
+        double lägsta = Arrays.stream(dagensPriser).min().orElseThrow();
+        double högsta = Arrays.stream(dagensPriser).max().orElseThrow();
+
+        for (int i = 0; i < 200_000; i++) {
+            double gräns = random.nextDouble() * 1.4;
+            boolean under = random.nextBoolean();
+            bevakningar.bevaka(ElpriserAPI.Prisklass.SE2, gräns, under ? Prisbevakningar.Riktning.UNDER : Prisbevakningar.Riktning.OVER);
+            if (under ? lägsta < gräns : högsta > gräns) förväntade++;
+        }
+
+        int larm = bevakningar.utvärdera(DATUM, ElpriserAPI.Prisklass.SE2, priser(dagensPriser), l -> {});
+
+        assertThat(larm).isEqualTo(förväntade);
+    }
+
+    private static List<ElpriserAPI.Elpris> priser(double... sekPerKWh) {
+        ZonedDateTime start = DATUM.atStartOfDay(ZoneId.of("Europe/Stockholm"));
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>();
+        for (int i = 0; i < sekPerKWh.length; i++) {
+            priser.add(new ElpriserAPI.Elpris(sekPerKWh[i], sekPerKWh[i] / 10, 10.0,
+                    start.plusMinutes(15L * i), start.plusMinutes(15L * (i + 1))));
+        }
+        return priser;
+    }
+}
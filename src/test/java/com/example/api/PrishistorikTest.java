@@ -0,0 +1,95 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrishistorikTest {
+    private static final ZonedDateTime START = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+    private static final Duration KVART = Duration.ofMinutes(15);
+
+    @Test
+    void append_upprepaTimpriserÖverKvartarna() {
+        Prishistorik historik = new Prishistorik(START.toInstant(), KVART);
+
+        historik.append(List.of(
+                new ElpriserAPI.Elpris(0.12345, 0.011, 11.0, START, START.plusHours(1)),
+                new ElpriserAPI.Elpris(0.5, 0.045, 11.0, START.plusHours(1), START.plusHours(1).plusMinutes(15))));
+
+        assertThat(historik.size()).isEqualTo(5);
+        assertThat(historik.get(3)).isEqualTo(0.12345);
+        assertThat(historik.get(4)).isEqualTo(0.5);
+        assertThat(historik.timeOf(4)).isEqualTo(START.plusHours(1).toInstant());
+    }
+
+    @Test
+    void append_avvisarLuckor() {
+        Prishistorik historik = new Prishistorik(START.toInstant(), KVART);
+
+        assertThatThrownBy(() -> historik.append(List.of(
+                new ElpriserAPI.Elpris(0.1, 0.01, 11.0, START.plusHours(1), START.plusHours(2)))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aggregat_ärExaktaÖverFleraBlock() {
+        Random random = new Random(3);
+        Prishistorik historik = new Prishistorik(Instant.EPOCH, KVART);
+        long[] värden = new long[10_000];
+        for (int i = 0; i < värden.length; i++) {
+            värden[i] = random.nextInt(300_000) - 20_000;
+            historik.appendFixed(värden[i]);
+        }
+
+        for (int[] intervall : new int[][]{{0, 10_000}, {5, 130}, {127, 129}, {300, 9_999}, {9_990, 10_000}}) {
+            long summa = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int i = intervall[0]; i < intervall[1]; i++) {
+                summa += värden[i];
+                min = Math.min(min, värden[i]);
+                max = Math.max(max, värden[i]);
+            }
+            assertThat(historik.sumFixed(intervall[0], intervall[1])).isEqualTo(summa);
+            assertThat(historik.minFixed(intervall[0], intervall[1])).isEqualTo(min);
+            assertThat(historik.maxFixed(intervall[0], intervall[1])).isEqualTo(max);
+        }
+        assertThat(historik.getFixed(9_999)).isEqualTo(värden[9_999]);
+        assertThat(historik.getFixed(200)).isEqualTo(värden[200]);
+    }
+
+    @Test
+    void cheapestWindow_väljerTidigasteVidLikaSumma() {
+        Prishistorik historik = new Prishistorik(Instant.EPOCH, KVART);
+        for (long värde : new long[]{30, 10, 20, 25, 5, 40, 10, 20}) historik.appendFixed(värde);
+
+        Prishistorik.Intervall fönster = historik.cheapestWindow(2);
+
+        assertThat(fönster.start()).isEqualTo(1);
+        assertThat(fönster.summaFixed()).isEqualTo(30);
+        assertThat(historik.cheapestWindow(9)).isNull();
+    }
+
+    @Test
+    void tioÅrKvartspriser_fårPlatsIFåMegabyte() {
+        Random random = new Random(11);
+        Prishistorik historik = new Prishistorik(Instant.EPOCH, KVART);
+        long pris = 50_000;
+        int kvartar = 10 * 365 * 96;
+        BigDecimal förväntadSumma = BigDecimal.ZERO;
+        for (int i = 0; i < kvartar; i++) {
+            pris = Math.max(0, pris + random.nextInt(10_001) - 5_000);
+            historik.appendFixed(pris);
+            förväntadSumma = förväntadSumma.add(BigDecimal.valueOf(pris));
+        }
+
+        assertThat(historik.byteSize()).isLessThan(4L * 1024 * 1024);
+        assertThat(BigDecimal.valueOf(historik.sumFixed(0, kvartar))).isEqualTo(förväntadSumma);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrisleveransTest {
+    private static final LocalDate DAG1 = LocalDate.of(2025, 9, 4);
+
+    // Kör hämtningarna först när testet ber om det, så förhämtningen kan räknas exakt
+    private final ArrayDeque<Runnable> väntande = new ArrayDeque<>();
+    private final Executor manuell = väntande::add;
+    private int körda;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            LocalDate datum = DAG1.plusDays(i);
+            ElpriserAPI.setMockResponseForDate(datum, """
+                    [{"SEK_per_kWh":0.%d,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"%sT00:00:00+02:00","time_end":"%sT01:00:00+02:00"}]"""
+                    .formatted(i + 1, datum, datum));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    private void körAlla() {
+        Runnable uppgift;
+        while ((uppgift = väntande.poll()) != null) {
+            uppgift.run();
+            körda++;
+        }
+    }
+
+    @Test
+    void levererarIDatumOchPrisklassordning() throws Exception {
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(Long.MAX_VALUE);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(2), List.of(ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4))
+                .subscribe(samlare);
+
+        samlare.klar.get(5, TimeUnit.SECONDS);
+        assertThat(samlare.dagar).extracting(dag -> dag.datum() + "_" + dag.prisklass()).containsExactly(
+                "2025-09-04_SE3", "2025-09-04_SE4", "2025-09-05_SE3", "2025-09-05_SE4", "2025-09-06_SE3", "2025-09-06_SE4");
+        assertThat(samlare.dagar.get(2).priser().getFirst().sekPerKWh()).isEqualTo(0.2);
+    }
+
+    @Test
+    void hämtarBaraBegränsatAntalDagarIFörväg() {
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(1);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(4), List.of(ElpriserAPI.Prisklass.SE3), 2, manuell).subscribe(samlare);
+        assertThat(väntande).hasSize(2);
+
+        körAlla();
+        // En dag levererad och två hämtade i förväg, men inga fler eftersom prenumeranten inte vill ha fler
+        assertThat(samlare.dagar).hasSize(1);
+        assertThat(körda).isEqualTo(3);
+        assertThat(väntande).isEmpty();
+
+        samlare.prenumeration.request(10);
+        körAlla();
+        assertThat(samlare.dagar).extracting(Prisleverans.Dag::datum)
+                .containsExactly(DAG1, DAG1.plusDays(1), DAG1.plusDays(2), DAG1.plusDays(3), DAG1.plusDays(4));
+        assertThat(samlare.klar).isCompleted();
+    }
+
+    @Test
+    void förhämtningenRäknasIDagarFörAllaPrisklasser() {
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(1);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(4), List.of(ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4), 2, manuell)
+                .subscribe(samlare);
+        // Två dagar i förväg för två prisklasser
+        assertThat(väntande).hasSize(4);
+
+        körAlla();
+        assertThat(samlare.dagar).hasSize(1);
+        assertThat(körda).isEqualTo(5);
+        assertThat(väntande).isEmpty();
+
+        samlare.prenumeration.request(20);
+        körAlla();
+        assertThat(samlare.dagar).hasSize(10);
+        assertThat(samlare.klar).isCompleted();
+    }
+
+    @Test
+    void långtIntervall_läggsInteIMinnescachen() throws Exception {
+        ElpriserAPI.setMockResponse("""
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-01-01T00:00:00+01:00","time_end":"2025-01-01T01:00:00+01:00"}]""");
+        ElpriserAPI api = new ElpriserAPI(true, (PrintStream) null);
+        Samlare samlare = new Samlare(Long.MAX_VALUE);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(364), List.of(ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4))
+                .subscribe(samlare);
+
+        samlare.klar.get(10, TimeUnit.SECONDS);
+        assertThat(samlare.dagar).hasSize(2 * 365);
+        assertThat(api.antalDagarIMinnet()).isZero();
+    }
+
+    @Test
+    void hopparÖverDagarUtanData() throws Exception {
+        ElpriserAPI.setMockResponseForDate(DAG1.plusDays(1), null);
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(Long.MAX_VALUE);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(2), List.of(ElpriserAPI.Prisklass.SE3)).subscribe(samlare);
+
+        samlare.klar.get(5, TimeUnit.SECONDS);
+        assertThat(samlare.dagar).extracting(Prisleverans.Dag::datum).containsExactly(DAG1, DAG1.plusDays(2));
+    }
+
+    @Test
+    void cancel_stopparLeveransen() {
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(1);
+
+        api.publiceraPriser(DAG1, DAG1.plusDays(4), List.of(ElpriserAPI.Prisklass.SE3), 1, manuell).subscribe(samlare);
+        körAlla();
+        samlare.prenumeration.cancel();
+        samlare.prenumeration.request(5);
+        körAlla();
+
+        assertThat(samlare.dagar).hasSize(1);
+        assertThat(samlare.klar).isNotDone();
+    }
+
+    @Test
+    void request_avvisarIckePositivEfterfrågan() {
+        ElpriserAPI api = new ElpriserAPI(false);
+        Samlare samlare = new Samlare(0);
+
+        api.publiceraPriser(DAG1, DAG1, List.of(ElpriserAPI.Prisklass.SE3), 1, manuell).subscribe(samlare);
+        samlare.prenumeration.request(0);
+
+        assertThat(samlare.klar).isCompletedExceptionally();
+    }
+
+    private static final class Samlare implements Flow.Subscriber<Prisleverans.Dag> {
+        final List<Prisleverans.Dag> dagar = new ArrayList<>();
+        final CompletableFuture<Void> klar = new CompletableFuture<>();
+        final long förstaEfterfrågan;
+        Flow.Subscription prenumeration;
+
+        Samlare(long förstaEfterfrågan) {
+            this.förstaEfterfrågan = förstaEfterfrågan;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            prenumeration = subscription;
+            if (förstaEfterfrågan > 0) subscription.request(förstaEfterfrågan);
+        }
+
+        @Override
+        public void onNext(Prisleverans.Dag dag) {
+            dagar.add(dag);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            klar.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            klar.complete(null);
+        }
+    }
+}